@@ -0,0 +1,84 @@
+package com.novatech.service_app.config;
+
+import com.novatech.service_app.entity.Tenant;
+import com.novatech.service_app.repository.TenantRepository;
+import com.novatech.service_app.service.CacheInvalidationBus;
+import com.novatech.service_app.service.TenantResolutionCache;
+import com.novatech.service_app.service.TenantService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request tenant resolution: subdomain parsing and the whole filter with a
+ * warm TenantResolutionCache (known tenant, superadmin host, cached unknown host).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TenantFilterBenchmark {
+
+    @Param({"acme.novatech.example.com", "localhost", "unknown.novatech.example.com"})
+    private String host;
+
+    private TenantFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() throws Exception {
+        Tenant acme = new Tenant();
+        acme.setId(1L);
+        TenantRepository tenantRepository = mock(TenantRepository.class);
+        when(tenantRepository.findBySubdomain(anyString())).thenReturn(Optional.empty());
+        when(tenantRepository.findBySubdomain("acme")).thenReturn(Optional.of(acme));
+
+        TenantResolutionCache cache = new TenantResolutionCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10_000);
+        ReflectionTestUtils.setField(cache, "invalidationBus", mock(CacheInvalidationBus.class));
+        TenantService tenantService = new TenantService();
+        ReflectionTestUtils.setField(tenantService, "tenantRepository", tenantRepository);
+        ReflectionTestUtils.setField(tenantService, "tenantResolutionCache", cache);
+
+        filter = new TenantFilter();
+        ReflectionTestUtils.setField(filter, "tenantService", tenantService);
+        request = new MockHttpServletRequest("GET", "/home");
+        request.setServerName(host);
+        response = new MockHttpServletResponse();
+        doFilter();
+    }
+
+    @Benchmark
+    public String extractSubdomain() {
+        return TenantFilter.extractSubdomain(host);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        filter.doFilter(request, response, chain);
+        return request.getAttribute("TENANT_ID");
+    }
+}
@@ -0,0 +1,70 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.config.BoundedPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Form login costs: building the principal and checking the password with BCrypt
+ * at the default work factor, directly and through the bounded hashing executor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private static final int STRENGTH = 10;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private BCryptPasswordEncoder bcrypt;
+    private BoundedPasswordEncoder boundedEncoder;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(STRENGTH);
+        boundedEncoder = new BoundedPasswordEncoder(STRENGTH,
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), 5_000);
+        passwordHash = bcrypt.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        boundedEncoder.shutdown();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> customUserDetails() {
+        CustomUserDetails details = new CustomUserDetails("jane.doe@acme.example.com", passwordHash, "ROLE_USER",
+                42L, 1L, "END_USER", "Jane Doe");
+        return details.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return bcrypt.matches(PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    public boolean boundedEncoderMatches() {
+        return boundedEncoder.matches(PASSWORD, passwordHash);
+    }
+}
@@ -0,0 +1,203 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.novatech.service_app.service.SsoFixtures.CERTIFICATE_PATH;
+import static com.novatech.service_app.service.SsoFixtures.CLIENT_ID;
+import static com.novatech.service_app.service.SsoFixtures.ISSUER;
+import static com.novatech.service_app.service.SsoFixtures.TENANT_ID;
+
+/**
+ * Token and assertion handling on the SSO callback, with IdP keys already cached
+ * (the steady state): JWT verification, SAML signature + validation, OIDC ID token
+ * decode and JWKS verification, and the SAML replay check at 50k live assertions.
+ * <p>
+ * samlSignatureCheck and legacySamlSignatureCheck compare real XML-DSig verification
+ * against the check it replaced (certificate reloaded per call, Signature element only).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SsoCallbackBenchmark {
+
+    private static final int LIVE_ASSERTIONS = 50_000;
+
+    private static final XMLInputFactory LEGACY_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    private SSOService ssoService;
+    private SamlService samlService;
+    private OidcService decodingOidcService;
+    private OidcService verifyingOidcService;
+    private SamlReplayCache replayCache;
+    private SamlSignatureVerifier samlSignatureVerifier;
+    private SsoConfiguration samlConfig;
+    private byte[] samlBytes;
+
+    private String jwt;
+    private String samlResponse;
+    private String idToken;
+    private long replayClock;
+
+    @Setup
+    public void setUp() throws Exception {
+        PrivateKey idpKey = SsoFixtures.idpPrivateKey();
+        jwt = SsoFixtures.signedJwt(idpKey, "novatech");
+        samlResponse = SsoFixtures.signedSamlResponse(idpKey);
+        idToken = SsoFixtures.signedJwt(idpKey, CLIENT_ID);
+
+        ssoService = new SSOService();
+        ReflectionTestUtils.setField(ssoService, "ssoConfigCache",
+                SsoFixtures.ssoConfigCache(SsoFixtures.config(1, "JWT", null)));
+        ReflectionTestUtils.setField(ssoService, "jwtVerifierCache", new JwtVerifierCache());
+
+        samlBytes = Base64.getDecoder().decode(samlResponse);
+        samlConfig = SsoFixtures.config(2, "SAML", ISSUER);
+        samlSignatureVerifier = new SamlSignatureVerifier();
+
+        samlService = new SamlService();
+        ReflectionTestUtils.setField(samlService, "ssoConfigCache", SsoFixtures.ssoConfigCache(samlConfig));
+        ReflectionTestUtils.setField(samlService, "samlSignatureVerifier", samlSignatureVerifier);
+        // The fixture is posted over and over, so replay checks are measured on their own (samlReplayCheck)
+        ReflectionTestUtils.setField(samlService, "samlReplayCache", new SamlReplayCache() {
+            @Override
+            public void checkAndRecord(String issuer, String assertionId, Instant notOnOrAfter) {
+            }
+        });
+
+        decodingOidcService = oidcService(SsoFixtures.config(3, "OIDC", null));
+        verifyingOidcService = oidcService(SsoFixtures.config(4, "OIDC", ISSUER));
+
+        replayCache = new SamlReplayCache();
+        ReflectionTestUtils.setField(replayCache, "store", "memory");
+        ReflectionTestUtils.setField(replayCache, "maxEntries", LIVE_ASSERTIONS * 2);
+        for (int i = 0; i < LIVE_ASSERTIONS; i++) {
+            samlReplayCheck();
+        }
+
+        TenantContext.setTenantId(TENANT_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseJwtToken() throws Exception {
+        return ssoService.parseJwtToken(jwt);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseSamlResponse() throws Exception {
+        return samlService.parseSamlResponse(samlResponse);
+    }
+
+    /**
+     * XML-DSig verification with the cached key, plus reading the verified Assertion.
+     */
+    @Benchmark
+    public SamlAssertionReader.SamlAssertion samlSignatureCheck() {
+        return SamlAssertionReader.read(samlSignatureVerifier.verifyAssertion(samlBytes, samlConfig).orElseThrow());
+    }
+
+    /**
+     * Baseline: the check SamlService used before XML-DSig verification. It reloaded the
+     * certificate from the classpath and only looked for a Signature element, in the same
+     * streaming pass that read the assertion fields.
+     */
+    @Benchmark
+    public boolean legacySamlSignatureCheck() throws Exception {
+        PublicKey publicKey;
+        try (InputStream in = new ClassPathResource(CERTIFICATE_PATH.replace("classpath:", "")).getInputStream()) {
+            publicKey = CertificateFactory.getInstance("X.509").generateCertificate(in).getPublicKey();
+        }
+        boolean signaturePresent = false;
+        XMLStreamReader reader = LEGACY_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(samlBytes));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "Signature".equals(reader.getLocalName())) {
+                    signaturePresent = true;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return signaturePresent && publicKey != null;
+    }
+
+    /**
+     * ID token without a configured issuer: payload decode plus iss/aud/exp checks.
+     */
+    @Benchmark
+    public Map<String, Object> parseIdToken() {
+        return decodingOidcService.parseIdToken(idToken);
+    }
+
+    /**
+     * ID token verified against the issuer's (cached) JWKS key.
+     */
+    @Benchmark
+    public Map<String, Object> parseIdTokenVerified() {
+        return verifyingOidcService.parseIdToken(idToken);
+    }
+
+    /**
+     * One new assertion per call on a synthetic clock (1 ms per call, 50 s validity),
+     * so about 50k IDs stay live and the wheel expires one slot per 1000 calls.
+     */
+    @Benchmark
+    public boolean samlReplayCheck() {
+        long now = ++replayClock;
+        if (now % 1_000 == 0) {
+            replayCache.expire(now);
+        }
+        return replayCache.recordLocally(SamlReplayCache.key(ISSUER, "_assertion-" + now), now + LIVE_ASSERTIONS, now);
+    }
+
+    private static OidcService oidcService(SsoConfiguration config) {
+        JwksKeyCache jwksKeyCache = new JwksKeyCache();
+        ReflectionTestUtils.setField(jwksKeyCache, "restTemplate", SsoFixtures.idpMetadata());
+        ReflectionTestUtils.setField(jwksKeyCache, "minRefetchIntervalSeconds", 30L);
+        OidcIdTokenVerifier verifier = new OidcIdTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "jwksKeyCache", jwksKeyCache);
+
+        OidcDiscoveryCache discoveryCache = new OidcDiscoveryCache();
+        ReflectionTestUtils.setField(discoveryCache, "restTemplate", SsoFixtures.idpMetadata());
+        ReflectionTestUtils.setField(discoveryCache, "ttlSeconds", 3_600L);
+
+        OidcService service = new OidcService();
+        ReflectionTestUtils.setField(service, "ssoConfigCache", SsoFixtures.ssoConfigCache(config));
+        ReflectionTestUtils.setField(service, "oidcDiscoveryCache", discoveryCache);
+        ReflectionTestUtils.setField(service, "idTokenVerifier", verifier);
+        return service;
+    }
+}
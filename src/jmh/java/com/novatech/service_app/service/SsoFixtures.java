@@ -0,0 +1,219 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import com.novatech.service_app.repository.SsoConfigurationRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.persistence.EntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Realistic IdP fixtures for the benchmarks: a throwaway RSA key pair
+ * (src/jmh/resources/benchmark) and tokens/responses signed with it.
+ * Services are wired by hand, as in the unit tests; mocks only serve cold loads.
+ */
+final class SsoFixtures {
+
+    static final Long TENANT_ID = 1L;
+    static final String ISSUER = "https://idp.example.com";
+    static final String SP_ENTITY_ID = "https://acme.novatech.example.com/sso/saml";
+    static final String CLIENT_ID = "novatech-app";
+    static final String CERTIFICATE_PATH = "classpath:benchmark/idp-cert.pem";
+    static final String JWKS_URI = ISSUER + "/jwks";
+    static final String KID = "benchmark-key";
+
+    private SsoFixtures() {}
+
+    static PrivateKey idpPrivateKey() throws Exception {
+        String pem = new ClassPathResource("benchmark/idp-key.pem").getContentAsString(StandardCharsets.UTF_8)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(pem)));
+    }
+
+    static RSAPublicKey idpPublicKey() {
+        return (RSAPublicKey) CertificateLoader.load(CERTIFICATE_PATH).getPublicKey();
+    }
+
+    static SsoConfiguration config(long id, String ssoType, String issuer) {
+        SsoConfiguration config = new SsoConfiguration();
+        config.setId(id);
+        config.setSsoType(ssoType);
+        config.setEnabled(true);
+        config.setClientId(CLIENT_ID);
+        config.setIssuer(issuer);
+        config.setDomain(SP_ENTITY_ID);
+        config.setCertificatePath(CERTIFICATE_PATH);
+        config.setRedirectUri("https://acme.novatech.example.com/sso/callback");
+        return config;
+    }
+
+    /**
+     * Snapshot cache for TENANT_ID holding the given configs.
+     */
+    static SsoConfigCache ssoConfigCache(SsoConfiguration... configs) {
+        SsoConfigurationRepository repository = mock(SsoConfigurationRepository.class);
+        when(repository.findByTenantId(TENANT_ID)).thenReturn(List.of(configs));
+        SsoConfigCache cache = new SsoConfigCache();
+        ReflectionTestUtils.setField(cache, "ssoConfigRepository", repository);
+        ReflectionTestUtils.setField(cache, "invalidationBus", mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(cache, "entityManager", mock(EntityManager.class));
+        return cache;
+    }
+
+    /**
+     * Serves the IdP's discovery document and JWKS, as fetched once by the caches.
+     */
+    static RestTemplate idpMetadata() {
+        RSAPublicKey publicKey = idpPublicKey();
+        Map<String, Object> discovery = Map.of(
+                "issuer", ISSUER,
+                "authorization_endpoint", ISSUER + "/authorize",
+                "token_endpoint", ISSUER + "/token",
+                "userinfo_endpoint", ISSUER + "/userinfo",
+                "jwks_uri", JWKS_URI);
+        Map<String, Object> jwks = Map.of("keys", List.of(Map.of(
+                "kty", "RSA", "kid", KID, "use", "sig", "alg", "RS256",
+                "n", base64Url(publicKey.getModulus()),
+                "e", base64Url(publicKey.getPublicExponent()))));
+        return new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                return (T) (url.equals(JWKS_URI) ? jwks : discovery);
+            }
+        };
+    }
+
+    static String signedJwt(PrivateKey key, String audience) {
+        return Jwts.builder()
+                .setHeaderParam("kid", KID)
+                .setIssuer(ISSUER)
+                .setAudience(audience)
+                .setSubject("00u1a2b3c4d5e6f7g8h9")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .claim("email", "jane.doe@acme.example.com")
+                .claim("name", "Jane Doe")
+                .claim("nonce", "n-0S6_WzA2Mj")
+                .claim("groups", List.of("Everyone", "Engineering", "novatech-admins"))
+                .signWith(key, SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    /**
+     * Base64 SAMLResponse (as POSTed to /sso/callback) with a signed, currently valid assertion.
+     */
+    static String signedSamlResponse(PrivateKey key) throws Exception {
+        Instant now = Instant.now();
+        String xml = """
+                <samlp:Response xmlns:samlp="urn:oasis:names:tc:SAML:2.0:protocol"
+                                xmlns:saml="urn:oasis:names:tc:SAML:2.0:assertion"
+                                ID="_resp-8f2c1e" Version="2.0" IssueInstant="%1$s"
+                                Destination="https://acme.novatech.example.com/sso/callback">
+                  <saml:Issuer>%3$s</saml:Issuer>
+                  <samlp:Status><samlp:StatusCode Value="urn:oasis:names:tc:SAML:2.0:status:Success"/></samlp:Status>
+                  <saml:Assertion ID="_assert-5d9b7a" Version="2.0" IssueInstant="%1$s">
+                    <saml:Issuer>%3$s</saml:Issuer>
+                    <saml:Subject>
+                      <saml:NameID Format="urn:oasis:names:tc:SAML:1.1:nameid-format:emailAddress">jane.doe@acme.example.com</saml:NameID>
+                      <saml:SubjectConfirmation Method="urn:oasis:names:tc:SAML:2.0:cm:bearer">
+                        <saml:SubjectConfirmationData NotOnOrAfter="%2$s"
+                            Recipient="https://acme.novatech.example.com/sso/callback"/>
+                      </saml:SubjectConfirmation>
+                    </saml:Subject>
+                    <saml:Conditions NotBefore="%1$s" NotOnOrAfter="%2$s">
+                      <saml:AudienceRestriction><saml:Audience>%4$s</saml:Audience></saml:AudienceRestriction>
+                    </saml:Conditions>
+                    <saml:AuthnStatement AuthnInstant="%1$s" SessionIndex="_session-3c7e">
+                      <saml:AuthnContext>
+                        <saml:AuthnContextClassRef>urn:oasis:names:tc:SAML:2.0:ac:classes:PasswordProtectedTransport</saml:AuthnContextClassRef>
+                      </saml:AuthnContext>
+                    </saml:AuthnStatement>
+                    <saml:AttributeStatement>
+                      <saml:Attribute Name="email"><saml:AttributeValue>jane.doe@acme.example.com</saml:AttributeValue></saml:Attribute>
+                      <saml:Attribute Name="firstName"><saml:AttributeValue>Jane</saml:AttributeValue></saml:Attribute>
+                      <saml:Attribute Name="lastName"><saml:AttributeValue>Doe</saml:AttributeValue></saml:Attribute>
+                      <saml:Attribute Name="groups">
+                        <saml:AttributeValue>Everyone</saml:AttributeValue>
+                        <saml:AttributeValue>Engineering</saml:AttributeValue>
+                      </saml:Attribute>
+                    </saml:AttributeStatement>
+                  </saml:Assertion>
+                </samlp:Response>""".formatted(now.minusSeconds(60), now.plusSeconds(3_600), ISSUER, SP_ENTITY_ID);
+        return Base64.getEncoder().encodeToString(signAssertion(xml, key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String signAssertion(String xml, PrivateKey key) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        Element assertion = (Element) doc.getElementsByTagNameNS(
+                "urn:oasis:names:tc:SAML:2.0:assertion", "Assertion").item(0);
+        assertion.setIdAttributeNS(null, "ID", true);
+
+        XMLSignatureFactory factory = XMLSignatureFactory.getInstance("DOM");
+        Reference reference = factory.newReference("#" + assertion.getAttribute("ID"),
+                factory.newDigestMethod(DigestMethod.SHA256, null),
+                List.of(factory.newTransform(Transform.ENVELOPED, (TransformParameterSpec) null),
+                        factory.newTransform(CanonicalizationMethod.EXCLUSIVE, (TransformParameterSpec) null)),
+                null, null);
+        SignedInfo signedInfo = factory.newSignedInfo(
+                factory.newCanonicalizationMethod(CanonicalizationMethod.EXCLUSIVE, (C14NMethodParameterSpec) null),
+                factory.newSignatureMethod(SignatureMethod.RSA_SHA256, null),
+                List.of(reference));
+
+        // Signature goes right after the Assertion's Issuer, as SAML requires
+        Element issuer = (Element) assertion.getElementsByTagNameNS(
+                "urn:oasis:names:tc:SAML:2.0:assertion", "Issuer").item(0);
+        factory.newXMLSignature(signedInfo, null).sign(new DOMSignContext(key, assertion, issuer.getNextSibling()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransformerFactory.newInstance().newTransformer().transform(new DOMSource(doc), new StreamResult(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
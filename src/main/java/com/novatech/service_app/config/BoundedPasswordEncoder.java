@@ -0,0 +1,140 @@
+package com.novatech.service_app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that runs every hash on a dedicated, bounded executor.
+ * <p>
+ * At most one hash per worker runs at a time, with a small queue in front. When the
+ * queue is full (e.g. a credential-stuffing burst) new work is rejected immediately
+ * with {@link PasswordHashingBusyException} instead of piling up on request threads.
+ * Callers block on the result; with virtual threads enabled that wait costs no carrier.
+ * Each hash carries a deadline of {@code timeoutMs} from submission: once the caller
+ * has given up, a task still in the queue is dropped when it reaches a worker instead
+ * of spending a core on an abandoned login.
+ * <p>
+ * {@link #upgradeEncoding} reports any stored hash whose cost differs from the
+ * configured strength, so DaoAuthenticationProvider rehashes it on the next login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+
+    /**
+     * Thrown when the hashing executor is saturated or a hash timed out.
+     * Extends AuthenticationServiceException so a rejected login is a normal login failure.
+     */
+    public static class PasswordHashingBusyException extends AuthenticationServiceException {
+        public PasswordHashingBusyException(String message) {
+            super(message);
+        }
+    }
+
+    public BoundedPasswordEncoder(int strength, ExecutorService executor, long timeoutMs) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        // Non-BCrypt values (e.g. SSO placeholders) can't be verified, so never rehash them
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(task, future, deadline));
+            return future;
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Password hashing saturated, rejecting request");
+            throw new PasswordHashingBusyException("Too many concurrent sign-ins, please retry shortly");
+        }
+    }
+
+    private static <T> void run(Supplier<T> task, CompletableFuture<T> future, long deadline) {
+        // Cancelled by a timed-out caller, or expired while queued: nobody waits for this hash
+        if (future.isDone() || System.nanoTime() - deadline >= 0) {
+            future.completeExceptionally(new PasswordHashingBusyException("Password check expired in the queue"));
+            logger.debug("⏭️ Skipped a password hash whose caller already gave up");
+            return;
+        }
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            logger.warn("⚠️ Password hashing timed out after {} ms", timeoutMs);
+            throw new PasswordHashingBusyException("Password check timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.novatech.service_app.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Shared, connection-pooled HTTP client for OIDC traffic (token exchange, userinfo).
+ * Exposed both as a blocking RestTemplate and as a non-blocking WebClient.
+ * Connections are kept alive and pooled per IdP host, so a login burst reuses
+ * warm TLS connections instead of opening a new socket per call.
+ */
+@Configuration
+public class OidcHttpClientConfig {
+
+    @Value("${app.oidc.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.oidc.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${app.oidc.http.max-connections-per-host:50}")
+    private int maxConnectionsPerHost;
+
+    @Value("${app.oidc.http.max-pending-acquires:200}")
+    private int maxPendingAcquires;
+
+    @Value("${app.oidc.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${app.oidc.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    /**
+     * Per-host connection pool. maxConnections caps in-flight requests per IdP;
+     * callers beyond that queue (up to maxPendingAcquires) and then fail fast.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider oidcConnectionProvider() {
+        return ConnectionProvider.builder("oidc")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public HttpClient oidcHttpClient(ConnectionProvider oidcConnectionProvider) {
+        return HttpClient.create(oidcConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs))
+                .keepAlive(true);
+    }
+
+    /**
+     * Blocking facade over the pooled client, used by OidcService.
+     */
+    @Bean
+    public RestTemplate oidcRestTemplate(HttpClient oidcHttpClient) {
+        ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(oidcHttpClient);
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Non-blocking client over the same pool, used by the async OIDC callback.
+     */
+    @Bean
+    public WebClient oidcWebClient(HttpClient oidcHttpClient) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(oidcHttpClient))
+                .build();
+    }
+}
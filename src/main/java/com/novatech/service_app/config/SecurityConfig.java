@@ -1,8 +1,8 @@
 package com.novatech.service_app.config;
 
 import com.novatech.service_app.service.CustomUserDetails;
+import com.novatech.service_app.service.SessionPrincipal;
 import com.novatech.service_app.service.UserService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +13,8 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
@@ -28,11 +30,29 @@ public class SecurityConfig {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    /**
+     * Form login provider. The successful Authentication carries a compact
+     * SessionPrincipal instead of the full CustomUserDetails (with its password hash),
+     * since the security context is serialized into the shared session store.
+     */
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider() {
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                                 UserDetails user) {
+                // super performs the BCrypt cost upgrade, if any
+                Authentication result = super.createSuccessAuthentication(principal, authentication, user);
+                if (user instanceof CustomUserDetails details) {
+                    return SessionPrincipal.from(details).toAuthentication(result.getDetails());
+                }
+                return result;
+            }
+        };
         provider.setUserDetailsService(userService);
         provider.setPasswordEncoder(passwordEncoder);
+        // Rehash on login when the stored BCrypt cost differs from the configured one
+        provider.setUserDetailsPasswordService(userService);
         return provider;
     }
 
@@ -58,25 +78,14 @@ public class SecurityConfig {
 
     /**
      * ✅ Multi-tenant success handler
-     * Redirects based on user type and stores session attributes
+     * Redirects based on user type (user id, tenant and type live in the SessionPrincipal)
      */
     @Bean
     public AuthenticationSuccessHandler customSuccessHandler() {
         return (request, response, authentication) -> {
-            HttpSession session = request.getSession();
-
-            // Extract custom user details
-            if (authentication.getPrincipal() instanceof CustomUserDetails) {
-                CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-
-                // Store in session
-                session.setAttribute("userType", userDetails.getUserType());
-                session.setAttribute("userId", userDetails.getUserId());
-                session.setAttribute("tenantId", userDetails.getTenantId());
-                session.setAttribute("displayName", userDetails.getDisplayName());
-
+            if (authentication.getPrincipal() instanceof SessionPrincipal principal) {
                 // Redirect based on user type
-                String redirectUrl = switch (userDetails.getUserType()) {
+                String redirectUrl = switch (principal.userType()) {
                     case "SUPERADMIN" -> "/superadmin/dashboard";
                     case "TENANT_ADMIN" -> "/admin/dashboard";
                     case "END_USER" -> "/home";
@@ -131,7 +140,7 @@ public class SecurityConfig {
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/login?logout=true")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("SESSION", "JSESSIONID")
                         .permitAll()
                 )
                 .exceptionHandling(ex -> ex
@@ -0,0 +1,64 @@
+package com.novatech.service_app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+/**
+ * Shared session store in PostgreSQL (tables from Flyway V4).
+ * <p>
+ * The store is whichever Spring Session module is on the classpath (JDBC here; swap
+ * the dependency for Redis etc.). To fall back to in-memory container sessions on a
+ * single node, exclude SessionAutoConfiguration.
+ * <p>
+ * Spring Session rewrites the session row on every request just to bump its last
+ * access time. The update query below only writes when the id, timeout or principal
+ * changed, or the stored access time is older than the write interval, so a burst of
+ * requests costs one row write. Sessions may therefore expire up to that interval early.
+ */
+@Configuration
+@ConditionalOnClass(JdbcIndexedSessionRepository.class)
+public class SessionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionConfig.class);
+
+    @Value("${app.session.last-access-write-interval-seconds:60}")
+    private long lastAccessWriteIntervalSeconds;
+
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> coalescedLastAccessWrites() {
+        return repository -> {
+            if (lastAccessWriteIntervalSeconds > 0) {
+                repository.setUpdateSessionQuery(coalescedUpdateQuery(lastAccessWriteIntervalSeconds * 1000));
+                logger.info("🗄️ JDBC sessions: last-access writes coalesced to every {}s",
+                        lastAccessWriteIntervalSeconds);
+            }
+        };
+    }
+
+    /**
+     * Drop-in for Spring Session's UPDATE_SESSION_QUERY: same six parameters in the
+     * same order (session id, last access, max inactive, expiry, principal, primary id).
+     */
+    public static String coalescedUpdateQuery(long intervalMillis) {
+        return """
+                UPDATE %TABLE_NAME% S
+                SET SESSION_ID = V.SESSION_ID, LAST_ACCESS_TIME = V.LAST_ACCESS_TIME,
+                    MAX_INACTIVE_INTERVAL = V.MAX_INACTIVE_INTERVAL, EXPIRY_TIME = V.EXPIRY_TIME,
+                    PRINCIPAL_NAME = V.PRINCIPAL_NAME
+                FROM (SELECT CAST(? AS CHAR(36)) AS SESSION_ID, CAST(? AS BIGINT) AS LAST_ACCESS_TIME,
+                             CAST(? AS INT) AS MAX_INACTIVE_INTERVAL, CAST(? AS BIGINT) AS EXPIRY_TIME,
+                             CAST(? AS VARCHAR(100)) AS PRINCIPAL_NAME, CAST(? AS CHAR(36)) AS PRIMARY_ID) V
+                WHERE S.PRIMARY_ID = V.PRIMARY_ID
+                  AND (S.SESSION_ID <> V.SESSION_ID
+                       OR S.MAX_INACTIVE_INTERVAL <> V.MAX_INACTIVE_INTERVAL
+                       OR S.PRINCIPAL_NAME IS DISTINCT FROM V.PRINCIPAL_NAME
+                       OR V.LAST_ACCESS_TIME - S.LAST_ACCESS_TIME >= %d)
+                """.formatted(intervalMillis);
+    }
+}
@@ -0,0 +1,75 @@
+package com.novatech.service_app.config;
+
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs where cold-start time goes: schema migrations, JPA bootstrap
+ * (schema validation) and total time until the app is ready to serve.
+ */
+@Configuration
+public class StartupTimingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingConfig.class);
+
+    /**
+     * Run Flyway as usual, timing the migration.
+     */
+    @Bean
+    public FlywayMigrationStrategy timedFlywayMigrationStrategy() {
+        return flyway -> {
+            long start = System.nanoTime();
+            MigrateResult result = flyway.migrate();
+            logger.info("🗄️ Schema migrations: {} applied in {} ms (schema version: {})",
+                    result.migrationsExecuted, elapsedMs(start),
+                    result.targetSchemaVersion != null ? result.targetSchemaVersion : result.initialSchemaVersion);
+        };
+    }
+
+    /**
+     * Times initialization of the JPA EntityManagerFactory (Hibernate bootstrap + validate).
+     * Static so the post-processor doesn't force early init of this configuration.
+     */
+    @Bean
+    public static BeanPostProcessor entityManagerFactoryTimer() {
+        return new BeanPostProcessor() {
+            private long start;
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if ("entityManagerFactory".equals(beanName)) {
+                    start = System.nanoTime();
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("entityManagerFactory".equals(beanName) && start != 0) {
+                    logger.info("🧩 JPA EntityManagerFactory initialized in {} ms", elapsedMs(start));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        logger.info("🚀 Application ready in {} ms (JVM uptime: {} ms)",
+                event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1,
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
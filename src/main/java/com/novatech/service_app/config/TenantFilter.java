@@ -1,6 +1,5 @@
 package com.novatech.service_app.config;
 
-import com.novatech.service_app.entity.Tenant;
 import com.novatech.service_app.service.TenantContext;
 import com.novatech.service_app.service.TenantService;
 import jakarta.servlet.*;
@@ -16,6 +15,8 @@ import java.util.Optional;
 /**
  * Filter that extracts subdomain from request and sets tenant context.
  * Runs on every HTTP request BEFORE security filters.
+ * Works unchanged on platform or virtual request threads: the tenant is bound
+ * to the handling thread for the duration of the chain and detached afterwards.
  */
 @Component
 public class TenantFilter implements Filter {
@@ -44,11 +45,11 @@ public class TenantFilter implements Filter {
             TenantContext.clear();
             httpRequest.setAttribute(TENANT_ID_ATTRIBUTE, null);
         } else {
-            // Tenant context - lookup tenant
-            Optional<Tenant> tenant = tenantService.getTenantBySubdomain(subdomain);
+            // Tenant context - lookup tenant (served from TenantResolutionCache)
+            Optional<Long> tenant = tenantService.resolveTenantId(subdomain);
 
             if (tenant.isPresent()) {
-                Long tenantId = tenant.get().getId();
+                Long tenantId = tenant.get();
                 TenantContext.setTenantId(tenantId);
                 httpRequest.setAttribute(TENANT_ID_ATTRIBUTE, tenantId); // ✅ Store in request
                 logger.debug("✅ Tenant context set: {} (ID: {})", subdomain, tenantId);
@@ -60,13 +61,19 @@ public class TenantFilter implements Filter {
         }
 
         // Continue the filter chain
-        chain.doFilter(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Pooled (platform) threads must not carry this tenant into the next request.
+            // The request attribute is kept so async dispatches still see the tenant.
+            TenantContext.detach();
+        }
     }
 
     /**
      * Extract subdomain from server name.
      */
-    private String extractSubdomain(String serverName) {
+    static String extractSubdomain(String serverName) {
         if (serverName == null || serverName.equals("localhost")) {
             return null;
         }
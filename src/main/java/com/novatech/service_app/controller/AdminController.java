@@ -1,7 +1,10 @@
 package com.novatech.service_app.controller;
 
+import com.novatech.service_app.dto.UserPage;
+import com.novatech.service_app.dto.UserPageRequest;
 import com.novatech.service_app.entity.SsoConfiguration;
 import com.novatech.service_app.entity.User;
+import com.novatech.service_app.service.EnabledSsoMethods;
 import com.novatech.service_app.service.SsoManagementService;
 import com.novatech.service_app.service.UserService;
 import org.slf4j.Logger;
@@ -15,7 +18,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal; // ✅ Keep this for the dashboard welcome
-import java.util.List;
 
 /**
  * Admin Controller - Handles admin dashboard, SSO configuration, and user management
@@ -40,19 +42,33 @@ public class AdminController {
     // ===================== ADMIN DASHBOARD =====================
 
     @GetMapping("/dashboard")
-    public String adminDashboard(Model model, Principal principal) {
+    public String adminDashboard(@RequestParam(value = "q", required = false) String search,
+                                 @RequestParam(value = "sort", required = false) String sort,
+                                 @RequestParam(value = "dir", required = false) String direction,
+                                 @RequestParam(value = "after", required = false) String after,
+                                 @RequestParam(value = "size", required = false) Integer size,
+                                 Model model, Principal principal) {
         logger.info("=== ADMIN DASHBOARD ACCESSED ===");
         if (principal != null) {
             User admin = userService.findByEmail(principal.getName());
             model.addAttribute("adminName", admin != null ? admin.getFullName() : "Admin");
             // ❌ REMOVED: model.addAttribute("currentUserRole", ...);
         }
-        List<User> users = userService.getAllUsers();
-        model.addAttribute("users", users);
-        model.addAttribute("jwtEnabled", ssoManagementService.isJwtEnabled());
-        model.addAttribute("oidcEnabled", ssoManagementService.isOidcEnabled());
-        model.addAttribute("samlEnabled", ssoManagementService.isSamlEnabled());
-        logger.info("Total users: {}", users.size());
+        // Render one keyset page of lightweight rows, never the whole user table
+        UserPageRequest pageRequest = UserPageRequest.of(search, sort, direction, after, size);
+        UserPage userPage = userService.getUserPage(pageRequest);
+        model.addAttribute("users", userPage.users());
+        model.addAttribute("nextCursor", userPage.nextCursor());
+        model.addAttribute("search", pageRequest.search());
+        model.addAttribute("sort", pageRequest.sort().name().toLowerCase());
+        model.addAttribute("dir", pageRequest.descending() ? "desc" : "asc");
+        model.addAttribute("pageSize", pageRequest.size());
+        model.addAttribute("firstPage", !pageRequest.hasCursor());
+        EnabledSsoMethods sso = ssoManagementService.getEnabledSsoMethods();
+        model.addAttribute("jwtEnabled", sso.jwt());
+        model.addAttribute("oidcEnabled", sso.oidc());
+        model.addAttribute("samlEnabled", sso.saml());
+        logger.info("Users on page: {} (more: {})", userPage.users().size(), userPage.hasNext());
         return "admin-dashboard";
     }
 
@@ -77,6 +93,7 @@ public class AdminController {
             @RequestParam String domain,
             @RequestParam String certificatePath,
             @RequestParam(required = false, defaultValue = "false") boolean enabled,
+            @RequestParam(required = false, defaultValue = "false") boolean allowUnsolicitedLogin,
             RedirectAttributes redirectAttributes) {
 
         try {
@@ -91,6 +108,7 @@ public class AdminController {
             jwtConfig.setDomain(domain);
             jwtConfig.setCertificatePath(certificatePath);
             jwtConfig.setEnabled(enabled);
+            jwtConfig.setAllowUnsolicitedLogin(allowUnsolicitedLogin);
 
             if (!ssoManagementService.isConfigValid(jwtConfig)) {
                 redirectAttributes.addFlashAttribute("error", "❌ Invalid JWT configuration. Please fill all required fields.");
@@ -137,8 +155,9 @@ public class AdminController {
             @RequestParam String providerName,
             @RequestParam String clientId,
             @RequestParam String clientSecret,
-            @RequestParam String authorizationEndpoint,
-            @RequestParam String tokenEndpoint,
+            @RequestParam(required = false) String issuer,
+            @RequestParam(required = false) String authorizationEndpoint,
+            @RequestParam(required = false) String tokenEndpoint,
             @RequestParam(required = false) String userinfoEndpoint,
             @RequestParam String redirectUri,
             @RequestParam(required = false) String domain,
@@ -153,6 +172,7 @@ public class AdminController {
             oidcConfig.setProviderName(providerName);
             oidcConfig.setClientId(clientId);
             oidcConfig.setClientSecret(clientSecret);
+            oidcConfig.setIssuer(issuer);
             oidcConfig.setAuthorizationEndpoint(authorizationEndpoint);
             oidcConfig.setTokenEndpoint(tokenEndpoint);
             oidcConfig.setUserinfoEndpoint(userinfoEndpoint);
@@ -162,7 +182,7 @@ public class AdminController {
             oidcConfig.setEnabled(enabled);
 
             if (!ssoManagementService.isConfigValid(oidcConfig)) {
-                redirectAttributes.addFlashAttribute("error", "❌ Invalid OIDC configuration. Please fill all required fields.");
+                redirectAttributes.addFlashAttribute("error", "❌ Invalid OIDC configuration. Please fill all required fields (an Issuer URL or both endpoints).");
                 return "redirect:/admin/oidc-config";
             }
             ssoManagementService.saveOrUpdateConfig(oidcConfig);
@@ -1,4 +1,31 @@
-private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+package com.novatech.service_app.controller;
+
+import com.novatech.service_app.dto.SignupRequest;
+import com.novatech.service_app.dto.TenantRegistrationRequest;
+import com.novatech.service_app.entity.Tenant;
+import com.novatech.service_app.service.EnabledSsoMethods;
+import com.novatech.service_app.service.SsoManagementService;
+import com.novatech.service_app.service.TenantContext;
+import com.novatech.service_app.service.TenantService;
+import com.novatech.service_app.service.UserService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+public class AuthController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     @Autowired
     private UserService userService;
@@ -39,17 +66,15 @@ private static final Logger logger = LoggerFactory.getLogger(AuthController.clas
 
         try {
             if (tenantId != null) {
-                // Tenant context - check SSO settings
-                boolean jwtEnabled = ssoManagementService.isJwtEnabled();
-                boolean oidcEnabled = ssoManagementService.isOidcEnabled();
-                boolean samlEnabled = ssoManagementService.isSamlEnabled();
+                // Tenant context - check SSO settings (cached snapshot)
+                EnabledSsoMethods sso = ssoManagementService.getEnabledSsoMethods();
 
-                model.addAttribute("jwtEnabled", jwtEnabled);
-                model.addAttribute("oidcEnabled", oidcEnabled);
-                model.addAttribute("samlEnabled", samlEnabled);
-                model.addAttribute("ssoEnabled", jwtEnabled || oidcEnabled || samlEnabled);
+                model.addAttribute("jwtEnabled", sso.jwt());
+                model.addAttribute("oidcEnabled", sso.oidc());
+                model.addAttribute("samlEnabled", sso.saml());
+                model.addAttribute("ssoEnabled", sso.any());
 
-                logger.info("SSO Status - JWT: {}, OIDC: {}, SAML: {}", jwtEnabled, oidcEnabled, samlEnabled);
+                logger.info("SSO Status - JWT: {}, OIDC: {}, SAML: {}", sso.jwt(), sso.oidc(), sso.saml());
             } else {
                 // Superadmin login - no SSO
                 model.addAttribute("jwtEnabled", false);
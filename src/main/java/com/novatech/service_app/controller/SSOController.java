@@ -1,29 +1,43 @@
 package com.novatech.service_app.controller;
 
-import com.novatech.service_app.entity.User;
-import com.novatech.service_app.repository.UserRepository;
+import com.novatech.service_app.dto.ProvisionedUser;
+import com.novatech.service_app.dto.SsoProfile;
+import com.novatech.service_app.entity.SsoConfiguration;
 import com.novatech.service_app.service.SSOService;
 import com.novatech.service_app.service.OidcService;
 import com.novatech.service_app.service.SamlService; // ✅ IMPORT NEW SERVICE
+import com.novatech.service_app.service.SessionPrincipal;
+import com.novatech.service_app.service.SsoLoginStateStore;
 import com.novatech.service_app.service.SsoManagementService;
+import com.novatech.service_app.service.SsoUserProvisioningService;
+import com.novatech.service_app.service.TenantContext;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping; // ✅ IMPORT POSTMAPPING
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.ModelAndView;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Map;
-import java.util.Optional;
 
 @Controller
 @RequestMapping("/sso")
@@ -31,6 +45,18 @@ public class SSOController {
 
     private static final Logger logger = LoggerFactory.getLogger(SSOController.class);
 
+    /**
+     * Holds the state of the login this browser started; callbacks must present it (login CSRF).
+     * SameSite=Lax, not Strict: it has to come back on the IdP's redirect.
+     */
+    private static final String STATE_COOKIE = "NOVATECH_SSO_STATE";
+
+    /**
+     * Internal forward target that finishes an OIDC login on a container thread.
+     */
+    private static final String OIDC_COMPLETE_PATH = "/callback/oidc-complete";
+    private static final String OIDC_CLAIMS_ATTRIBUTE = "OIDC_CLAIMS";
+
     @Autowired
     private SSOService ssoService;
 
@@ -45,7 +71,10 @@ public class SSOController {
     private SsoManagementService ssoManagementService;
 
     @Autowired
-    private UserRepository userRepository;
+    private SsoUserProvisioningService ssoUserProvisioningService;
+
+    @Autowired
+    private SsoLoginStateStore loginStateStore;
 
     @Value("${app.homepage-url:http://localhost:8080/home}")
     private String homePageUrl;
@@ -53,8 +82,15 @@ public class SSOController {
     @Value("${app.logout-success-url:http://localhost:8080/login}")
     private String loginPageUrl;
 
+    @Value("${app.oidc.callback-timeout-ms:20000}")
+    private long oidcCallbackTimeoutMs;
+
+    @Value("${app.sso.state.ttl-seconds:600}")
+    private long stateTtlSeconds;
+
     @GetMapping("/login")
-    public String ssoLogin(@RequestParam(value = "type", defaultValue = "jwt") String ssoType) {
+    public String ssoLogin(@RequestParam(value = "type", defaultValue = "jwt") String ssoType,
+                           HttpServletRequest request, HttpServletResponse response) {
         try {
             logger.info("=== SSO LOGIN INITIATED ===");
             logger.info("SSO Type: {}", ssoType.toUpperCase());
@@ -64,9 +100,13 @@ public class SSOController {
                 return "redirect:" + loginPageUrl + "?error=sso_disabled";
             }
 
-            String authorizationUrl = ssoService.getAuthorizationUrl(ssoType);
+            SSOService.AuthorizationRedirect redirect = ssoService.getAuthorizationRedirect(ssoType);
+            if (redirect.state() != null) {
+                response.addHeader(HttpHeaders.SET_COOKIE,
+                        stateCookie(redirect.state(), stateTtlSeconds, request).toString());
+            }
             logger.info("➡️ Redirecting user to {} SSO login page", ssoType);
-            return "redirect:" + authorizationUrl;
+            return "redirect:" + redirect.url();
         } catch (IllegalStateException e) {
             logger.error("❌ SSO configuration error: {}", e.getMessage());
             return "redirect:" + loginPageUrl + "?error=sso_config_error";
@@ -87,10 +127,13 @@ public class SSOController {
             @RequestParam(value = "SAMLResponse", required = false) String samlResponse,
             @RequestParam(value = "error", required = false) String error,
             @RequestParam(value = "error_description", required = false) String errorDescription,
-            HttpServletRequest request) {
+            @CookieValue(value = STATE_COOKIE, required = false) String browserState,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         try {
             logger.info("=== SSO CALLBACK RECEIVED ===");
+            clearStateCookie(browserState, request, response);
             if (error != null) {
                 logger.error("❌ OAuth error: {} - {}", error, errorDescription);
                 return "redirect:" + loginPageUrl + "?error=sso_auth_failed";
@@ -101,9 +144,7 @@ public class SSOController {
 
             switch (ssoType) {
                 case "JWT":
-                    return handleJwtCallback(idToken, request);
-                case "OIDC":
-                    return handleOidcCallback(authCode, state, request);
+                    return handleJwtCallback(idToken, state, browserState, request);
                 case "SAML":
                     return handleSamlCallback(samlResponse, request);
                 default:
@@ -118,65 +159,159 @@ public class SSOController {
     }
 
     private String determineSsoType(String idToken, String authCode, String samlResponse) {
+        // OIDC (code) callbacks are routed to the async handler below
         if (idToken != null && !idToken.isEmpty()) {
             return "JWT";
-        } else if (authCode != null && !authCode.isEmpty()) {
-            return "OIDC";
         } else if (samlResponse != null && !samlResponse.isEmpty()) {
             return "SAML";
         }
         return "UNKNOWN";
     }
 
-    private String handleJwtCallback(String idToken, HttpServletRequest request) throws Exception {
+    private String handleJwtCallback(String idToken, String state, String browserState,
+                                     HttpServletRequest request) throws Exception {
         logger.info("=== PROCESSING JWT CALLBACK ===");
         if (idToken == null || idToken.isEmpty()) {
             logger.error("❌ Missing id_token in JWT callback");
             return "redirect:" + loginPageUrl + "?error=missing_token";
         }
         Map<String, Object> claims = ssoService.parseJwtToken(idToken);
+        try {
+            verifyJwtLogin(claims, state, browserState);
+        } catch (SecurityException e) {
+            logger.error("❌ JWT callback rejected: {}", e.getMessage());
+            return "redirect:" + loginPageUrl + "?error=invalid_state";
+        }
         String email = (String) claims.get("email");
-        String name = (String) claims.getOrDefault("name", "SSO User");
+        String name = (String) claims.get("name");
         if (email == null || email.isEmpty()) {
             logger.error("❌ No email found in JWT token!");
             return "redirect:" + loginPageUrl + "?error=email_missing";
         }
         logger.info("✅ JWT verified. Email: {}, Name: {}", email, name);
-        User user = findOrCreateUser(email, name);
+        ProvisionedUser user = findOrCreateUser(SsoProfile.fromClaims(email, name, claims), "SSO User");
         authenticateUser(user, request);
-        logger.info("✅ JWT SSO login successful for: {}", user.getEmail());
+        logger.info("✅ JWT SSO login successful for: {}", user.email());
         logger.info("➡️ Redirecting to homepage: {}", homePageUrl);
         return "redirect:" + homePageUrl;
     }
 
-    private String handleOidcCallback(String authCode, String state, HttpServletRequest request) throws Exception {
+    /**
+     * Ties a verified ID token to a login started by this browser. Not every JWT IdP echoes
+     * state back, so the pending login is the one bound to this browser, and the token's
+     * signed nonce must be that login's nonce. Tokens without a nonce can't be tied to any
+     * login (IdP-initiated or legacy IdPs) and are only accepted when the tenant opted in.
+     */
+    private void verifyJwtLogin(Map<String, Object> claims, String state, String browserState) {
+        Long tenantId = TenantContext.getTenantId();
+        Object nonce = claims.get("nonce");
+        if (nonce == null) {
+            boolean allowed = ssoService.getSsoConfig("JWT")
+                    .map(SsoConfiguration::isAllowUnsolicitedLogin)
+                    .orElse(false);
+            if (!allowed) {
+                throw new SecurityException("JWT without nonce, unsolicited logins are not allowed for this tenant");
+            }
+            if (state != null) {
+                loginStateStore.consume(state, browserState, tenantId, "JWT");
+            }
+            logger.warn("⚠️ JWT callback without nonce accepted, unsolicited logins allowed for tenant {}", tenantId);
+            return;
+        }
+        SsoLoginStateStore.PendingLogin login = loginStateStore.consume(
+                state != null ? state : browserState, browserState, tenantId, "JWT");
+        if (!MessageDigest.isEqual(login.nonce().getBytes(StandardCharsets.UTF_8),
+                nonce.toString().getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("JWT nonce mismatch");
+        }
+    }
+
+    /**
+     * ✅ Non-blocking OIDC callback (authorization code flow).
+     * The Tomcat worker is released while the IdP answers the token exchange
+     * (and userinfo, only when the ID token lacks email or name). Only that I/O runs
+     * off the request: the claims come back through the DeferredResult, and the async
+     * dispatch forwards them to {@link #completeOidcLogin}, which provisions the user and
+     * sets up the session on a container thread.
+     */
+    @RequestMapping(value = "/callback", params = {"code", "!id_token"})
+    public DeferredResult<ModelAndView> handleOidcCallback(
+            @RequestParam("code") String authCode,
+            @RequestParam(value = "state", required = false) String state,
+            @RequestParam(value = "error", required = false) String error,
+            @RequestParam(value = "error_description", required = false) String errorDescription,
+            @CookieValue(value = STATE_COOKIE, required = false) String browserState,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+
         logger.info("=== PROCESSING OIDC CALLBACK ===");
-        if (authCode == null || authCode.isEmpty()) {
+        clearStateCookie(browserState, request, response);
+        DeferredResult<ModelAndView> result = new DeferredResult<>(oidcCallbackTimeoutMs,
+                new ModelAndView("redirect:" + loginPageUrl + "?error=oidc_timeout"));
+
+        if (error != null) {
+            logger.error("❌ OAuth error: {} - {}", error, errorDescription);
+            result.setResult(new ModelAndView("redirect:" + loginPageUrl + "?error=sso_auth_failed"));
+            return result;
+        }
+        if (authCode.isEmpty()) {
             logger.error("❌ Missing authorization code in OIDC callback");
-            return "redirect:" + loginPageUrl + "?error=missing_code";
+            result.setResult(new ModelAndView("redirect:" + loginPageUrl + "?error=missing_code"));
+            return result;
+        }
+
+        SsoLoginStateStore.PendingLogin login;
+        try {
+            login = loginStateStore.consume(state, browserState, TenantContext.getTenantId(), "OIDC");
+        } catch (SecurityException e) {
+            logger.error("❌ OIDC callback rejected: {}", e.getMessage());
+            result.setResult(new ModelAndView("redirect:" + loginPageUrl + "?error=invalid_state"));
+            return result;
         }
+
         try {
-            logger.info("📤 Step 1: Exchanging code for token...");
-            Map<String, Object> tokenResponse = oidcService.exchangeCodeForToken(authCode);
-            String accessToken = (String) tokenResponse.get("access_token");
-            String idToken = (String) tokenResponse.get("id_token");
-            logger.info("✅ Token exchange successful");
-            if (accessToken == null || accessToken.isEmpty()) {
-                logger.error("❌ No access token received");
-                return "redirect:" + loginPageUrl + "?error=no_access_token";
-            }
-            logger.info("📤 Step 2: Fetching user info...");
-            Map<String, Object> userInfo = oidcService.getUserInfo(accessToken);
-            String email = extractEmail(userInfo, idToken);
-            String name = extractName(userInfo, idToken);
+            logger.info("📤 Exchanging code for token (async)...");
+            // The reactive chain never touches the request: it only hands the claims back
+            Disposable pending = oidcService.fetchUserClaimsAsync(authCode, login.nonce())
+                    .map(claims -> new ModelAndView("forward:/sso" + OIDC_COMPLETE_PATH, OIDC_CLAIMS_ATTRIBUTE, claims))
+                    .onErrorResume(e -> {
+                        logger.error("❌ OIDC callback processing failed: {}", e.getMessage(), e);
+                        return Mono.just(new ModelAndView("redirect:" + loginPageUrl + "?error=oidc_processing_failed"));
+                    })
+                    .subscribe(result::setResult);
+            result.onTimeout(pending::dispose);
+        } catch (Exception e) {
+            logger.error("❌ OIDC callback processing failed: {}", e.getMessage(), e);
+            result.setResult(new ModelAndView("redirect:" + loginPageUrl + "?error=oidc_processing_failed"));
+        }
+        return result;
+    }
+
+    /**
+     * Second half of the OIDC callback, reached only by the forward above (the claims are a
+     * request attribute, which clients can't set). Runs on a container thread; the tenant
+     * comes from the request attribute TenantFilter left for async dispatches.
+     */
+    @RequestMapping(OIDC_COMPLETE_PATH)
+    public String completeOidcLogin(HttpServletRequest request) {
+        if (request.getDispatcherType() != DispatcherType.FORWARD
+                || !(request.getAttribute(OIDC_CLAIMS_ATTRIBUTE) instanceof Map<?, ?> attribute)) {
+            logger.error("❌ OIDC completion reached without claims");
+            return "redirect:" + loginPageUrl + "?error=oidc_processing_failed";
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> claims = (Map<String, Object>) attribute;
+        try {
+            String email = extractEmail(claims);
+            String name = extractName(claims);
             if (email == null || email.isEmpty()) {
                 logger.error("❌ No email found in OIDC response!");
                 return "redirect:" + loginPageUrl + "?error=email_missing";
             }
             logger.info("✅ OIDC user info retrieved. Email: {}, Name: {}", email, name);
-            User user = findOrCreateUser(email, name);
+            ProvisionedUser user = findOrCreateUser(SsoProfile.fromClaims(email, name, claims), "OIDC User");
             authenticateUser(user, request);
-            logger.info("✅ OIDC SSO login successful for: {}", user.getEmail());
+            logger.info("✅ OIDC SSO login successful for: {}", user.email());
             logger.info("➡️ Redirecting to homepage: {}", homePageUrl);
             return "redirect:" + homePageUrl;
         } catch (Exception e) {
@@ -185,24 +320,14 @@ public class SSOController {
         }
     }
 
-    private String extractEmail(Map<String, Object> userInfo, String idToken) {
+    private String extractEmail(Map<String, Object> userInfo) {
         if (userInfo != null && userInfo.containsKey("email")) {
             return (String) userInfo.get("email");
         }
-        if (idToken != null && !idToken.isEmpty()) {
-            try {
-                Map<String, Object> idTokenClaims = oidcService.parseIdToken(idToken);
-                if (idTokenClaims.containsKey("email")) {
-                    return (String) idTokenClaims.get("email");
-                }
-            } catch (Exception e) {
-                logger.warn("⚠️ Could not parse ID token for email: {}", e.getMessage());
-            }
-        }
         return null;
     }
 
-    private String extractName(Map<String, Object> userInfo, String idToken) {
+    private String extractName(Map<String, Object> userInfo) {
         if (userInfo != null) {
             if (userInfo.containsKey("name")) {
                 return (String) userInfo.get("name");
@@ -211,17 +336,7 @@ public class SSOController {
                 return userInfo.get("given_name") + " " + userInfo.get("family_name");
             }
         }
-        if (idToken != null && !idToken.isEmpty()) {
-            try {
-                Map<String, Object> idTokenClaims = oidcService.parseIdToken(idToken);
-                if (idTokenClaims.containsKey("name")) {
-                    return (String) idTokenClaims.get("name");
-                }
-            } catch (Exception e) {
-                logger.warn("⚠️ Could not parse ID token for name: {}", e.getMessage());
-            }
-        }
-        return "OIDC User";
+        return null;
     }
 
     /**
@@ -240,7 +355,7 @@ public class SSOController {
 
             // Extract user details
             String email = (String) attributes.get("email");
-            String name = (String) attributes.getOrDefault("name", "SAML User");
+            String name = (String) attributes.get("name");
 
             if (email == null || email.isEmpty()) {
                 logger.error("❌ No email found in SAML response!");
@@ -251,12 +366,12 @@ public class SSOController {
             logger.info("✅ SAML response parsed and validated. Email: {}, Name: {}", email, name);
 
             // ✅ Fetch or create user
-            User user = findOrCreateUser(email, name);
+            ProvisionedUser user = findOrCreateUser(SsoProfile.fromClaims(email, name, attributes), email.split("@")[0]);
 
             // ✅ Authenticate user in Spring Security
             authenticateUser(user, request);
 
-            logger.info("✅ SAML SSO login successful for: {}", user.getEmail());
+            logger.info("✅ SAML SSO login successful for: {}", user.email());
             logger.info("➡️ Redirecting to homepage: {}", homePageUrl);
 
             return "redirect:" + homePageUrl;
@@ -268,32 +383,38 @@ public class SSOController {
         }
     }
 
-    private User findOrCreateUser(String email, String name) {
-        Optional<User> existingUser = userRepository.findByEmail(email);
-        return existingUser.orElseGet(() -> {
-            User newUser = new User();
-            newUser.setEmail(email);
-            newUser.setFullName(name);
-            newUser.setPasswordHash("SSO_LOGIN");
-            newUser.setRole("ROLE_USER");
-            logger.info("🆕 Creating new SSO user: {}", email);
-            return userRepository.save(newUser);
-        });
+    private ResponseCookie stateCookie(String value, long maxAgeSeconds, HttpServletRequest request) {
+        return ResponseCookie.from(STATE_COOKIE, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path("/sso")
+                .maxAge(maxAgeSeconds)
+                .build();
+    }
+
+    private void clearStateCookie(String browserState, HttpServletRequest request, HttpServletResponse response) {
+        if (browserState != null) {
+            response.addHeader(HttpHeaders.SET_COOKIE, stateCookie("", 0, request).toString());
+        }
+    }
+
+    private ProvisionedUser findOrCreateUser(SsoProfile profile, String defaultName) {
+        return ssoUserProvisioningService.provision(TenantContext.getTenantId(), profile, defaultName);
     }
 
-    private void authenticateUser(User user, HttpServletRequest request) {
-        UserDetails userDetails = org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password("")
-                .roles(user.getRole().replace("ROLE_", ""))
-                .build();
-        UsernamePasswordAuthenticationToken authToken =
-                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
+    private void authenticateUser(ProvisionedUser user, HttpServletRequest request) {
+        // Only the compact principal goes into the (shared) session
+        SessionPrincipal principal = SessionPrincipal.forSso(user.id(), user.tenantId(), user.email(), user.role());
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(
+                principal.toAuthentication(new WebAuthenticationDetailsSource().buildDetails(request)));
+        SecurityContextHolder.setContext(securityContext);
+        if (request.getSession(false) != null) {
+            request.changeSessionId(); // session fixation protection, as for form login
+        }
         HttpSession session = request.getSession(true);
-        session.setAttribute("loggedInUser", user);
-        session.setAttribute("SPRING_SECURITY_CONTEXT", SecurityContextHolder.getContext());
-        logger.info("✅ User authenticated: {}", user.getEmail());
+        session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext);
+        logger.info("✅ User authenticated: {}", user.email());
     }
 }
\ No newline at end of file
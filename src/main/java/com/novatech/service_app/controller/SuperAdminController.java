@@ -1,20 +1,28 @@
 package com.novatech.service_app.controller;
 
+import com.novatech.service_app.dto.DashboardStats;
 import com.novatech.service_app.entity.Tenant;
 import com.novatech.service_app.entity.User;
 import com.novatech.service_app.repository.TenantRepository;
 import com.novatech.service_app.repository.UserRepository;
+import com.novatech.service_app.service.CacheInvalidationBus;
+import com.novatech.service_app.service.DashboardStatsService;
 import com.novatech.service_app.service.TenantService;
-import jakarta.servlet.http.HttpSession;
+import com.novatech.service_app.service.UserDetailsCache;
+import com.novatech.service_app.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,26 +46,37 @@ public class SuperAdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
     // ============================================================
     //                    DASHBOARD PAGE (Unchanged)
     // ============================================================
 
     @GetMapping("/dashboard")
-    public String dashboard(Model model, HttpSession session) {
+    public String dashboard(Model model) {
         logger.info("=== SUPERADMIN DASHBOARD ACCESSED ===");
 
-        String displayName = (String) session.getAttribute("displayName");
-        model.addAttribute("displayName", displayName != null ? displayName : "Super Administrator");
+        model.addAttribute("displayName", "Super Administrator");
 
-        // Fetch all tenants
-        List<Tenant> tenants = tenantService.getAllTenants();
-        model.addAttribute("tenants", tenants);
+        // Tenants with user counts + totals (one grouped query, short-lived cache)
+        DashboardStats stats = dashboardStatsService.getStats();
+        model.addAttribute("tenants", stats.tenants());
 
         // Dashboard statistics
-        model.addAttribute("totalTenants", tenants.size());
-        model.addAttribute("totalUsers", userRepository.count());
+        model.addAttribute("totalTenants", stats.totalTenants());
+        model.addAttribute("totalUsers", stats.totalUsers());
 
-        logger.info("Dashboard loaded - Tenants: {}, Users: {}", tenants.size(), userRepository.count());
+        logger.info("Dashboard loaded - Tenants: {}, Users: {}", stats.totalTenants(), stats.totalUsers());
 
         return "superadmin-dashboard";
     }
@@ -216,4 +235,51 @@ public class SuperAdminController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    //                    CACHE METRICS (AJAX)
+    // ============================================================
+
+    /**
+     * Hit/miss counters of the login user-details cache and cross-node invalidation lag.
+     */
+    @GetMapping("/cache-stats")
+    @ResponseBody
+    public ResponseEntity<?> getCacheStats() {
+        UserDetailsCache.Stats stats = userDetailsCache.stats();
+        return ResponseEntity.ok(Map.of(
+                "userDetails", Map.of(
+                        "hits", stats.hits(),
+                        "misses", stats.misses(),
+                        "evictions", stats.evictions(),
+                        "size", stats.size(),
+                        "hitRatio", stats.hitRatio()),
+                "invalidationBus", invalidationBus.stats()));
+    }
+
+    // ============================================================
+    //                    EXPORT TENANT USERS (JSON LINES)
+    // ============================================================
+
+    /**
+     * Stream all users of a tenant as JSON Lines (application/x-ndjson).
+     * Rows are read through a DB cursor and written as they arrive, so memory
+     * stays flat regardless of tenant size. Runs on the request thread, so no
+     * async timeout applies to large exports.
+     */
+    @GetMapping(value = "/tenants/{id}/users/export", produces = "application/x-ndjson")
+    public void exportTenantUsers(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        if (!tenantRepository.existsById(id)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Tenant not found");
+            return;
+        }
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"tenant-" + id + "-users.jsonl\"");
+
+        logger.info("Exporting users of tenant: {}", id);
+        userService.exportTenantUsers(id, response.getOutputStream());
+    }
+}
@@ -0,0 +1,15 @@
+package com.novatech.service_app.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable superadmin dashboard figures. {@code unassignedUsers} counts users
+ * without a tenant; they are included in {@code totalUsers}.
+ */
+public record DashboardStats(List<TenantStats> tenants, long totalUsers, long unassignedUsers, Instant loadedAt) {
+
+    public int totalTenants() {
+        return tenants.size();
+    }
+}
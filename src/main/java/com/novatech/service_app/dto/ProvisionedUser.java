@@ -0,0 +1,14 @@
+package com.novatech.service_app.dto;
+
+import java.io.Serializable;
+
+/**
+ * User row returned by SSO provisioning; {@code created} is true for a first login.
+ */
+public record ProvisionedUser(Long id, Long tenantId, String email, String fullName, String role,
+                              boolean created) implements Serializable {
+
+    public ProvisionedUser withProfile(String fullName, String role) {
+        return new ProvisionedUser(id, tenantId, email, fullName, role, created);
+    }
+}
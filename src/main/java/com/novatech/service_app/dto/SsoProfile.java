@@ -0,0 +1,52 @@
+package com.novatech.service_app.dto;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Profile attributes asserted by the IdP on an SSO login.
+ * <p>
+ * {@code name} is null when the IdP sent none, and {@code groups} is null when it
+ * sent no group/role claim at all, so an absent claim never overwrites stored data.
+ */
+public record SsoProfile(String email, String name, Set<String> groups) {
+
+    private static final String[] GROUP_CLAIMS = {"groups", "roles", "role"};
+
+    /**
+     * Collect groups from the "groups", "roles" and "role" claims. Values may be a
+     * list (JWT/OIDC) or a comma-separated string (SAML attributes).
+     */
+    public static SsoProfile fromClaims(String email, String name, Map<String, Object> claims) {
+        Set<String> groups = null;
+        for (String claim : GROUP_CLAIMS) {
+            Object value = claims.get(claim);
+            if (value == null) {
+                continue;
+            }
+            if (groups == null) {
+                groups = new LinkedHashSet<>();
+            }
+            if (value instanceof Collection<?> values) {
+                for (Object v : values) {
+                    addGroup(groups, String.valueOf(v));
+                }
+            } else {
+                for (String v : value.toString().split(",")) {
+                    addGroup(groups, v);
+                }
+            }
+        }
+        return new SsoProfile(email, name == null || name.isBlank() ? null : name.trim(),
+                groups == null ? null : Set.copyOf(groups));
+    }
+
+    private static void addGroup(Set<String> groups, String group) {
+        String trimmed = group.trim();
+        if (!trimmed.isEmpty()) {
+            groups.add(trimmed);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.novatech.service_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One tenant row of the superadmin dashboard with its user count.
+ */
+public record TenantStats(Long id, String name, String email, String subdomain,
+                          LocalDateTime createdAt, long userCount) {
+
+    public TenantStats withUserCount(long count) {
+        return new TenantStats(id, name, email, subdomain, createdAt, count);
+    }
+}
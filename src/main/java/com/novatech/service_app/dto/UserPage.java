@@ -0,0 +1,13 @@
+package com.novatech.service_app.dto;
+
+import java.util.List;
+
+/**
+ * One page of user summaries plus the cursor for the next page (null on the last page).
+ */
+public record UserPage(List<UserSummary> users, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.novatech.service_app.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * One page of the admin user list: search text, sort, and the keyset cursor
+ * (sort value + id of the last row of the previous page).
+ */
+public record UserPageRequest(String search, UserSortField sort, boolean descending,
+                              String afterValue, Long afterId, int size) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Build a request from raw query parameters; bad values fall back to defaults.
+     */
+    public static UserPageRequest of(String search, String sort, String direction, String cursor, Integer size) {
+        String trimmed = search != null && !search.isBlank() ? search.trim() : null;
+        int pageSize = size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+        UserPageRequest request = new UserPageRequest(trimmed, UserSortField.fromParam(sort),
+                "desc".equalsIgnoreCase(direction), null, null, pageSize);
+        return request.after(cursor);
+    }
+
+    public boolean hasCursor() {
+        return afterId != null;
+    }
+
+    /**
+     * Opaque cursor pointing after the given row.
+     */
+    public String cursorAfter(UserSummary last) {
+        String raw = sort.valueOf(last) + "\n" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private UserPageRequest after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return this;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('\n');
+            Long id = Long.valueOf(raw.substring(split + 1));
+            return new UserPageRequest(search, sort, descending, raw.substring(0, split), id, size);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Tampered or stale cursor: start from the first page
+            return this;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.novatech.service_app.dto;
+
+/**
+ * Columns the admin user list can be sorted by. Each is non-null, so
+ * (value, id) is a total order usable as a keyset.
+ */
+public enum UserSortField {
+    ID("id"),
+    NAME("fullName"),
+    EMAIL("email");
+
+    private final String property;
+
+    UserSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Value of this column for a row, as stored in a page cursor.
+     */
+    public String valueOf(UserSummary user) {
+        return switch (this) {
+            case ID -> String.valueOf(user.id());
+            case NAME -> user.fullName();
+            case EMAIL -> user.email();
+        };
+    }
+
+    public static UserSortField fromParam(String param) {
+        if (param != null) {
+            for (UserSortField field : values()) {
+                if (field.name().equalsIgnoreCase(param)) {
+                    return field;
+                }
+            }
+        }
+        return ID;
+    }
+}
@@ -0,0 +1,9 @@
+package com.novatech.service_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of the admin user list (JPQL constructor projection, not a managed entity).
+ */
+public record UserSummary(Long id, String fullName, String email, String role, LocalDateTime createdAt) {
+}
@@ -5,10 +5,13 @@ import java.time.LocalDateTime;
 
 /**
  * Entity to store SSO configurations (JWT, OIDC, SAML)
- * Replaces hardcoded application.properties values
+ * Replaces hardcoded application.properties values.
+ * Each tenant has at most one configuration per SSO type.
  */
 @Entity
-@Table(name = "sso_configurations")
+@Table(name = "sso_configurations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sso_config_tenant_type",
+                columnNames = {"tenant_id", "sso_type"}))
 public class SsoConfiguration {
 
     @Id
@@ -18,9 +21,16 @@ public class SsoConfiguration {
     /**
      * Type of SSO: JWT, OIDC, or SAML
      */
-    @Column(name = "sso_type", nullable = false, unique = true)
+    @Column(name = "sso_type", nullable = false)
     private String ssoType; // "JWT", "OIDC", "SAML"
 
+    /**
+     * Owning tenant (null only for legacy pre-multi-tenant rows)
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tenant_id")
+    private Tenant tenant;
+
     /**
      * Provider name (e.g., "miniOrange JWT", "Okta OIDC")
      */
@@ -94,6 +104,14 @@ public class SsoConfiguration {
     @Column(name = "enabled", nullable = false)
     private boolean enabled = false;
 
+    /**
+     * JWT only: accept ID tokens that carry no state or nonce (IdP-initiated logins or
+     * legacy IdPs). Such tokens are not tied to a login started here, so this is off
+     * unless the tenant admin turns it on.
+     */
+    @Column(name = "allow_unsolicited_login", nullable = false)
+    private boolean allowUnsolicitedLogin = false;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -144,6 +162,14 @@ public class SsoConfiguration {
         this.ssoType = ssoType != null ? ssoType.toUpperCase() : null;
     }
 
+    public Tenant getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(Tenant tenant) {
+        this.tenant = tenant;
+    }
+
     public String getProviderName() {
         return providerName;
     }
@@ -240,6 +266,14 @@ public class SsoConfiguration {
         this.enabled = enabled;
     }
 
+    public boolean isAllowUnsolicitedLogin() {
+        return allowUnsolicitedLogin;
+    }
+
+    public void setAllowUnsolicitedLogin(boolean allowUnsolicitedLogin) {
+        this.allowUnsolicitedLogin = allowUnsolicitedLogin;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
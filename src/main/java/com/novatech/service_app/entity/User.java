@@ -6,9 +6,20 @@ import java.time.LocalDateTime;
 /**
  * Represents an end-user in the system.
  * Each user belongs to a tenant (except superadmin).
+ * <p>
+ * Emails are unique per tenant (uk_users_tenant_email) and, for users without a
+ * tenant, by the partial index uk_users_email_without_tenant (V9), which JPA can't
+ * declare here: the tenant key treats NULL tenant_ids as distinct.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_tenant_email", columnNames = {"tenant_id", "email"}),
+        indexes = {
+                @Index(name = "idx_users_tenant_id_id", columnList = "tenant_id, id"),
+                @Index(name = "idx_users_tenant_full_name_id", columnList = "tenant_id, full_name, id"),
+                @Index(name = "idx_users_tenant_email_id", columnList = "tenant_id, email, id"),
+                @Index(name = "idx_users_email", columnList = "email")
+        })
 public class User {
 
     @Id
@@ -7,22 +7,30 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Repository for SSO configurations.
+ * All lookups are tenant-scoped and served by the (tenant_id, sso_type) unique index.
+ */
 @Repository
 public interface SsoConfigurationRepository extends JpaRepository<SsoConfiguration, Long> {
 
     /**
-     * Find SSO config by type (JWT, OIDC, SAML)
+     * Find a tenant's SSO config by type (JWT, OIDC, SAML)
      */
-    Optional<SsoConfiguration> findBySsoType(String ssoType);
+    Optional<SsoConfiguration> findByTenantIdAndSsoType(Long tenantId, String ssoType);
 
     /**
-     * Find all enabled SSO configurations
+     * Find a legacy (tenant-less) SSO config by type
      */
-    List<SsoConfiguration> findByEnabledTrue();
+    Optional<SsoConfiguration> findByTenantIsNullAndSsoType(String ssoType);
 
     /**
-     * Check if a specific SSO type is enabled
+     * Find all SSO configs of a tenant (one query per snapshot load)
      */
-    boolean existsBySsoTypeAndEnabledTrue(String ssoType);
+    List<SsoConfiguration> findByTenantId(Long tenantId);
+
+    /**
+     * Find all legacy (tenant-less) SSO configs
+     */
+    List<SsoConfiguration> findByTenantIsNull();
 }
-//working-version
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.novatech.service_app.repository;
 
+import com.novatech.service_app.dto.TenantStats;
 import com.novatech.service_app.entity.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,4 +34,16 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
      * Check if email already exists (validation).
      */
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * All tenants with their user counts in one grouped query (superadmin dashboard).
+     * The FULL JOIN also yields one row with a null id counting users without a tenant.
+     */
+    @Query("""
+            SELECT new com.novatech.service_app.dto.TenantStats(
+                t.id, t.name, t.email, t.subdomain, t.createdAt, COUNT(u.id))
+            FROM Tenant t FULL JOIN User u ON u.tenant = t
+            GROUP BY t.id, t.name, t.email, t.subdomain, t.createdAt
+            ORDER BY t.id""")
+    List<TenantStats> findTenantStats();
+}
@@ -1,17 +1,25 @@
 package com.novatech.service_app.repository;
 
+import com.novatech.service_app.dto.UserSummary;
 import com.novatech.service_app.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing User entities.
  * Now includes tenant-aware queries.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSummaryRepository {
 
     /**
      * Find user by email (used for login).
@@ -30,6 +38,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Find all users sorted by ID.
+     * Loads every user; the admin dashboard pages through findUserSummaries instead.
      */
     List<User> findAllByOrderByIdAsc();
 
@@ -56,4 +65,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Count users in a tenant.
      */
     long countByTenantId(Long tenantId);
+
+    /**
+     * Replace a user's password hash (rehash on login) without loading the entity.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+    /**
+     * Stream a tenant's users as read-only summaries through a server-side cursor
+     * (500 rows per fetch). Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            SELECT new com.novatech.service_app.dto.UserSummary(u.id, u.fullName, u.email, u.role, u.createdAt)
+            FROM User u
+            WHERE u.tenant.id = :tenantId
+            ORDER BY u.id""")
+    Stream<UserSummary> streamSummariesByTenantId(@Param("tenantId") Long tenantId);
 }
\ No newline at end of file
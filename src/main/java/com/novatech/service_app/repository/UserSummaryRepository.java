@@ -0,0 +1,18 @@
+package com.novatech.service_app.repository;
+
+import com.novatech.service_app.dto.UserPageRequest;
+import com.novatech.service_app.dto.UserSummary;
+
+import java.util.List;
+
+/**
+ * Custom fragment of UserRepository for the keyset-paginated admin user list.
+ */
+public interface UserSummaryRepository {
+
+    /**
+     * Fetch up to {@code limit} user summaries after the request's cursor.
+     * A null tenantId lists users of all tenants (superadmin).
+     */
+    List<UserSummary> findUserSummaries(Long tenantId, UserPageRequest request, int limit);
+}
@@ -0,0 +1,75 @@
+package com.novatech.service_app.repository;
+
+import com.novatech.service_app.dto.UserPageRequest;
+import com.novatech.service_app.dto.UserSortField;
+import com.novatech.service_app.dto.UserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over users: "WHERE (sortValue, id) > (:afterValue, :afterId)
+ * ORDER BY sortValue, id LIMIT n". Within a tenant each sort field has a matching
+ * (tenant_id, column, id) index (V2, V8), and the row-value comparison lets Postgres
+ * start an index range scan at the cursor, so a page does not depend on how deep it is.
+ * A search ('%q%') can't use those indexes: it filters rows while walking the index,
+ * so a rare match may scan most of the tenant. Only the listed columns are selected
+ * and nothing enters the persistence context.
+ */
+public class UserSummaryRepositoryImpl implements UserSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> findUserSummaries(Long tenantId, UserPageRequest request, int limit) {
+        String column = "u." + request.sort().getProperty();
+        String direction = request.descending() ? "DESC" : "ASC";
+        String after = request.descending() ? "<" : ">";
+
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.novatech.service_app.dto.UserSummary(u.id, u.fullName, u.email, u.role, u.createdAt)
+                FROM User u
+                WHERE 1 = 1""");
+        if (tenantId != null) {
+            jpql.append(" AND u.tenant.id = :tenantId");
+        }
+        if (request.search() != null) {
+            jpql.append(" AND (LOWER(u.fullName) LIKE :search ESCAPE '\\' OR LOWER(u.email) LIKE :search ESCAPE '\\')");
+        }
+        if (request.hasCursor()) {
+            if (request.sort() == UserSortField.ID) {
+                jpql.append(" AND u.id ").append(after).append(" :afterId");
+            } else {
+                // Row value, not "col > v OR (col = v AND id > i)", which Postgres can't use as a range scan
+                jpql.append(" AND (").append(column).append(", u.id) ").append(after).append(" (:afterValue, :afterId)");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (request.sort() != UserSortField.ID) {
+            jpql.append(column).append(' ').append(direction).append(", ");
+        }
+        jpql.append("u.id ").append(direction);
+
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql.toString(), UserSummary.class);
+        if (tenantId != null) {
+            query.setParameter("tenantId", tenantId);
+        }
+        if (request.search() != null) {
+            query.setParameter("search", "%" + escapeLike(request.search().toLowerCase()) + "%");
+        }
+        if (request.hasCursor()) {
+            query.setParameter("afterId", request.afterId());
+            if (request.sort() != UserSortField.ID) {
+                query.setParameter("afterValue", request.afterValue());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
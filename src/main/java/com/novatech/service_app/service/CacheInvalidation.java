@@ -0,0 +1,45 @@
+package com.novatech.service_app.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helper for in-memory caches that must be invalidated when the DB changes.
+ */
+public final class CacheInvalidation {
+
+    private CacheInvalidation() {}
+
+    /**
+     * Run the eviction now and, inside a transaction, once more after commit so a
+     * concurrent reader can't re-cache the pre-commit state.
+     */
+    public static void nowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Run an update to a cache once the current transaction commits (immediately
+     * when there is none), so rolled-back writes never reach the cache.
+     */
+    public static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package com.novatech.service_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node cache invalidation over PostgreSQL LISTEN/NOTIFY on the application's
+ * own database (no broker needed).
+ * <p>
+ * Caches evict locally as before and {@link #publish} the same invalidation as a
+ * NOTIFY through the pooled JdbcTemplate. Inside a transaction Postgres delivers it
+ * only on commit (and drops it on rollback), so other nodes never evict ahead of the
+ * write. A listener thread applies events from other nodes through the handlers the
+ * caches {@link #register}, and records delivery lag. It holds its own unpooled
+ * connection, opened from the datasource settings: a LISTEN connection is held for
+ * the life of the node, so it must not take a slot (or trip leak detection) in the
+ * application pool. After a lost connection every registered cache is cleared, since
+ * events may have been missed meanwhile.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "cache_invalidation";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ResultSetExtractor<Void> IGNORE_RESULT = rs -> null;
+
+    /**
+     * Delivery counters; lag is publish-to-receive time in ms (across nodes it includes clock skew).
+     */
+    public record Stats(boolean connected, long published, long received, long applied, long errors,
+                        long reconnects, long lastLagMs, long maxLagMs, double avgLagMs) {}
+
+    private record Handler(Consumer<CacheInvalidationEvent> apply, Runnable clearAll) {}
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<CacheInvalidationEvent.Type, Handler> handlers = new ConcurrentHashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder totalLagMs = new LongAdder();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread listener;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.cache-bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache-bus.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cache-bus.reconnect-delay-ms:2000}")
+    private long reconnectDelayMs;
+
+    @Value("${app.cache-bus.lag-warn-ms:1000}")
+    private long lagWarnMs;
+
+    /**
+     * Handle one event type from other nodes; {@code clearAll} runs after a reconnect.
+     */
+    public void register(CacheInvalidationEvent.Type type, Consumer<CacheInvalidationEvent> apply, Runnable clearAll) {
+        handlers.put(type, new Handler(apply, clearAll));
+    }
+
+    /**
+     * Broadcast an invalidation the caller has already applied locally.
+     */
+    public void publish(CacheInvalidationEvent.Type type, Long tenantId, String key) {
+        if (!enabled) {
+            return;
+        }
+        CacheInvalidationEvent event = new CacheInvalidationEvent(type, tenantId, key, nodeId, System.currentTimeMillis());
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE_RESULT, CHANNEL, OBJECT_MAPPER.writeValueAsString(event));
+            published.increment();
+        } catch (DataAccessException | com.fasterxml.jackson.core.JsonProcessingException e) {
+            errors.increment();
+            logger.error("❌ Could not publish cache invalidation {}: {}", event, e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        long count = received.sum();
+        return new Stats(connected, published.sum(), count, applied.sum(), errors.sum(), reconnects.sum(),
+                lastLagMs.get(), maxLagMs.get(), count == 0 ? 0.0 : (double) totalLagMs.sum() / count);
+    }
+
+    // ============================================================
+    //                         LISTENER
+    // ============================================================
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            logger.info("📴 Cache invalidation bus disabled; caches are node-local");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean everConnected = false;
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                if (everConnected) {
+                    // Events sent while we were disconnected are lost: start from empty caches
+                    reconnects.increment();
+                    handlers.values().forEach(handler -> handler.clearAll().run());
+                    logger.info("🔁 Cache invalidation bus reconnected; local caches cleared");
+                } else {
+                    logger.info("📡 Cache invalidation bus listening on '{}' (node {})", CHANNEL, nodeId);
+                }
+                everConnected = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                connected = false;
+                errors.increment();
+                logger.warn("⚠️ Cache invalidation listener lost its connection: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        connected = false;
+    }
+
+    private Connection openListenerConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    /**
+     * Apply one NOTIFY payload. Our own events are only counted (their lag is the
+     * true round trip): the local caches were already evicted when they were published.
+     */
+    void receive(String payload) {
+        CacheInvalidationEvent event;
+        try {
+            event = OBJECT_MAPPER.readValue(payload, CacheInvalidationEvent.class);
+        } catch (Exception e) {
+            errors.increment();
+            logger.warn("⚠️ Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+
+        long lag = Math.max(0, System.currentTimeMillis() - event.publishedAtMillis());
+        received.increment();
+        totalLagMs.add(lag);
+        lastLagMs.set(lag);
+        maxLagMs.accumulateAndGet(lag, Math::max);
+        if (lag > lagWarnMs) {
+            logger.warn("🐢 Cache invalidation {} arrived after {} ms", event.type(), lag);
+        }
+
+        if (nodeId.equals(event.origin())) {
+            return;
+        }
+        Handler handler = handlers.get(event.type());
+        if (handler != null) {
+            handler.apply().accept(event);
+            applied.increment();
+            logger.debug("📥 Applied remote cache invalidation {} ({} ms)", event, lag);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.novatech.service_app.service;
+
+/**
+ * A cache invalidation broadcast to the other nodes by {@link CacheInvalidationBus}.
+ * {@code tenantId} and {@code key} are set as the type needs (see {@link Type}).
+ */
+public record CacheInvalidationEvent(Type type, Long tenantId, String key, String origin, long publishedAtMillis) {
+
+    public enum Type {
+        /** TenantResolutionCache; key = subdomain */
+        TENANT_SUBDOMAIN,
+        /** SsoConfigCache; tenantId (null for superadmin-context configs) */
+        SSO_CONFIGS,
+        /** UserDetailsCache; tenantId + key = email */
+        USER_DETAILS,
+        /** DashboardStatsService; tenantId + key = user count delta (no key: reload) */
+        DASHBOARD_STATS,
+        /** JwtVerifierCache; key = SSO config id */
+        JWT_VERIFIER,
+        /** SamlSignatureVerifier; key = SSO config id */
+        SAML_SIGNING_KEY,
+        /** OidcDiscoveryCache; key = issuer */
+        OIDC_DISCOVERY
+    }
+}
@@ -0,0 +1,48 @@
+package com.novatech.service_app.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+
+/**
+ * Loads IdP signing certificates from the classpath (shared by JWT and SAML verification).
+ */
+public final class CertificateLoader {
+
+    private CertificateLoader() {}
+
+    /**
+     * Load an X.509 certificate from a "classpath:"-style path.
+     */
+    public static X509Certificate load(String certPath) {
+        try {
+            String cleanPath = certPath.replace("classpath:", "");
+            ClassPathResource resource = new ClassPathResource(cleanPath);
+            if (!resource.exists()) {
+                throw new IllegalArgumentException("Certificate file not found in classpath: " + cleanPath);
+            }
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            try (InputStream in = resource.getInputStream()) {
+                return (X509Certificate) factory.generateCertificate(in);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load certificate from: " + certPath + " - " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * SHA-256 fingerprint of the DER-encoded certificate (lowercase hex).
+     */
+    public static String fingerprint(X509Certificate cert) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(cert.getEncoded());
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fingerprint certificate: " + e.getMessage(), e);
+        }
+    }
+}
@@ -31,6 +31,13 @@ public class CustomUserDetails implements UserDetails {
         this.displayName = displayName;
     }
 
+    /**
+     * Copy of these details with a new password hash (after a rehash on login).
+     */
+    public CustomUserDetails withPasswordHash(String newPasswordHash) {
+        return new CustomUserDetails(email, newPasswordHash, role, userId, tenantId, userType, displayName);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority(role));
@@ -0,0 +1,198 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.dto.DashboardStats;
+import com.novatech.service_app.dto.TenantStats;
+import com.novatech.service_app.entity.Tenant;
+import com.novatech.service_app.repository.TenantRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Superadmin dashboard statistics: tenants, total users and users per tenant.
+ * <p>
+ * Loaded with one grouped query and cached for a short TTL. Tenant and user
+ * create/delete events are applied to the cached snapshot after commit, so the
+ * figures stay current between reloads without touching the DB. User count
+ * changes reach other nodes as deltas over the {@link CacheInvalidationBus} and are
+ * applied the same way; tenant changes (rare) make them drop their snapshot and reload.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Value("${app.dashboard-stats.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final AtomicReference<DashboardStats> current = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.DASHBOARD_STATS,
+                this::applyRemote, this::invalidate);
+    }
+
+    /**
+     * Current statistics; reloads at most once per TTL (one caller reloads, others wait).
+     */
+    public DashboardStats getStats() {
+        DashboardStats stats = current.get();
+        if (isFresh(stats)) {
+            return stats;
+        }
+        reloadLock.lock();
+        try {
+            stats = current.get();
+            if (isFresh(stats)) {
+                return stats;
+            }
+            long generationAtLoad = generation.get();
+            stats = load();
+            // Skip caching if a tenant/user write raced with this load
+            if (generation.get() == generationAtLoad) {
+                current.set(stats);
+            }
+            return stats;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Force a reload on the next read.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        current.set(null);
+    }
+
+    // ============================================================
+    //             INCREMENTAL UPDATES (applied after commit)
+    // ============================================================
+
+    public void onTenantCreated(Tenant tenant) {
+        TenantStats row = new TenantStats(tenant.getId(), tenant.getName(), tenant.getEmail(),
+                tenant.getSubdomain(), tenant.getCreatedAt(), 0);
+        apply(stats -> {
+            List<TenantStats> tenants = new ArrayList<>(stats.tenants());
+            tenants.removeIf(t -> t.id().equals(row.id()));
+            tenants.add(row);
+            return withTenants(stats, tenants, stats.totalUsers(), stats.unassignedUsers());
+        });
+    }
+
+    public void onTenantUpdated(Tenant tenant) {
+        apply(stats -> withTenants(stats, stats.tenants().stream()
+                .map(t -> t.id().equals(tenant.getId())
+                        ? new TenantStats(t.id(), tenant.getName(), tenant.getEmail(),
+                                tenant.getSubdomain(), t.createdAt(), t.userCount())
+                        : t)
+                .toList(), stats.totalUsers(), stats.unassignedUsers()));
+    }
+
+    public void onTenantDeleted(Long tenantId) {
+        apply(stats -> {
+            long removedUsers = stats.tenants().stream()
+                    .filter(t -> t.id().equals(tenantId))
+                    .mapToLong(TenantStats::userCount)
+                    .sum();
+            return withTenants(stats, stats.tenants().stream().filter(t -> !t.id().equals(tenantId)).toList(),
+                    stats.totalUsers() - removedUsers, stats.unassignedUsers());
+        });
+    }
+
+    public void onUserCreated(Long tenantId) {
+        applyUserDelta(tenantId, 1);
+    }
+
+    public void onUserDeleted(Long tenantId) {
+        applyUserDelta(tenantId, -1);
+    }
+
+    /**
+     * Tenant changes: other nodes reload (key = null).
+     */
+    private void apply(UnaryOperator<DashboardStats> delta) {
+        CacheInvalidation.afterCommit(() -> update(delta));
+        invalidationBus.publish(CacheInvalidationEvent.Type.DASHBOARD_STATS, null, null);
+    }
+
+    /**
+     * User count changes: other nodes apply the same delta (key = signed count).
+     */
+    private void applyUserDelta(Long tenantId, long delta) {
+        CacheInvalidation.afterCommit(() -> update(stats -> adjustUsers(stats, tenantId, delta)));
+        invalidationBus.publish(CacheInvalidationEvent.Type.DASHBOARD_STATS, tenantId, Long.toString(delta));
+    }
+
+    private void applyRemote(CacheInvalidationEvent event) {
+        if (event.key() == null) {
+            invalidate();
+            return;
+        }
+        long delta = Long.parseLong(event.key());
+        update(stats -> adjustUsers(stats, event.tenantId(), delta));
+    }
+
+    private void update(UnaryOperator<DashboardStats> delta) {
+        generation.incrementAndGet();
+        current.updateAndGet(stats -> stats == null ? null : delta.apply(stats));
+    }
+
+    private static DashboardStats adjustUsers(DashboardStats stats, Long tenantId, long delta) {
+        if (tenantId == null) {
+            return withTenants(stats, stats.tenants(), stats.totalUsers() + delta, stats.unassignedUsers() + delta);
+        }
+        List<TenantStats> tenants = stats.tenants().stream()
+                .map(t -> t.id().equals(tenantId) ? t.withUserCount(t.userCount() + delta) : t)
+                .toList();
+        return withTenants(stats, tenants, stats.totalUsers() + delta, stats.unassignedUsers());
+    }
+
+    private static DashboardStats withTenants(DashboardStats stats, List<TenantStats> tenants,
+                                              long totalUsers, long unassignedUsers) {
+        return new DashboardStats(List.copyOf(tenants), totalUsers, unassignedUsers, stats.loadedAt());
+    }
+
+    private boolean isFresh(DashboardStats stats) {
+        return stats != null
+                && Duration.between(stats.loadedAt(), Instant.now()).getSeconds() < ttlSeconds;
+    }
+
+    private DashboardStats load() {
+        List<TenantStats> tenants = new ArrayList<>();
+        long totalUsers = 0;
+        long unassignedUsers = 0;
+        for (TenantStats row : tenantRepository.findTenantStats()) {
+            totalUsers += row.userCount();
+            if (row.id() == null) {
+                unassignedUsers = row.userCount();
+            } else {
+                tenants.add(row);
+            }
+        }
+        logger.debug("📊 Dashboard stats loaded: {} tenants, {} users", tenants.size(), totalUsers);
+        return new DashboardStats(List.copyOf(tenants), totalUsers, unassignedUsers, Instant.now());
+    }
+}
@@ -0,0 +1,30 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+
+import java.util.Map;
+
+/**
+ * Immutable view of which SSO methods a tenant has switched on.
+ * Built once per SSO config snapshot, so the login page needs no queries to render.
+ */
+public record EnabledSsoMethods(boolean jwt, boolean oidc, boolean saml) {
+
+    public static final EnabledSsoMethods NONE = new EnabledSsoMethods(false, false, false);
+
+    public static EnabledSsoMethods from(Map<String, SsoConfiguration> configsByType) {
+        return new EnabledSsoMethods(
+                isEnabled(configsByType, "JWT"),
+                isEnabled(configsByType, "OIDC"),
+                isEnabled(configsByType, "SAML"));
+    }
+
+    public boolean any() {
+        return jwt || oidc || saml;
+    }
+
+    private static boolean isEnabled(Map<String, SsoConfiguration> configsByType, String ssoType) {
+        SsoConfiguration config = configsByType.get(ssoType);
+        return config != null && config.isEnabled();
+    }
+}
@@ -0,0 +1,217 @@
+package com.novatech.service_app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Signing keys from an IdP's JWKS endpoint, cached per JWKS URI.
+ * <p>
+ * Keys are parsed once and refreshed in the background, so ID token checks never wait
+ * on the IdP. A token signed with an unknown {@code kid} (key rotation) triggers a
+ * refetch, rate-limited per URI so forged kids can't turn into a request flood.
+ * Only one thread fetches a given URI at a time; a failed refresh keeps the old keys.
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private static final String NO_KID = "";
+
+    private record KeySet(Map<String, PublicKey> keys, long fetchedAtNanos) {}
+
+    private static final class Entry {
+        final AtomicReference<KeySet> keySet = new AtomicReference<>();
+        final ReentrantLock fetchLock = new ReentrantLock();
+        volatile long lastUsedNanos = System.nanoTime();
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    @Qualifier("oidcRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Value("${app.oidc.jwks.refresh-interval-seconds:300}")
+    private long refreshIntervalSeconds;
+
+    @Value("${app.oidc.jwks.min-refetch-interval-seconds:30}")
+    private long minRefetchIntervalSeconds;
+
+    @PostConstruct
+    void startBackgroundRefresh() {
+        scheduler.scheduleWithFixedDelay(this::refreshAll, refreshIntervalSeconds, refreshIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The key for {@code kid} (null when the token has none), fetching the key set on first use.
+     */
+    public PublicKey getKey(String jwksUri, String kid) {
+        Entry entry = entries.computeIfAbsent(jwksUri, uri -> new Entry());
+        entry.lastUsedNanos = System.nanoTime();
+
+        KeySet keySet = entry.keySet.get();
+        if (keySet == null) {
+            keySet = refresh(jwksUri, entry, null);
+        }
+        PublicKey key = find(keySet, kid);
+        if (key != null) {
+            return key;
+        }
+
+        // Unknown kid: the IdP may have rotated its keys
+        if (System.nanoTime() - keySet.fetchedAtNanos() >= TimeUnit.SECONDS.toNanos(minRefetchIntervalSeconds)) {
+            logger.info("🔑 Unknown key id '{}', refetching {}", kid, jwksUri);
+            key = find(refresh(jwksUri, entry, keySet), kid);
+        }
+        if (key == null) {
+            throw new SecurityException("No signing key '" + kid + "' published at " + jwksUri);
+        }
+        return key;
+    }
+
+    /**
+     * Refetch keys in use recently; drop URIs no login has needed for two intervals.
+     */
+    void refreshAll() {
+        long idleLimit = TimeUnit.SECONDS.toNanos(refreshIntervalSeconds * 2);
+        entries.forEach((uri, entry) -> {
+            if (System.nanoTime() - entry.lastUsedNanos > idleLimit) {
+                entries.remove(uri, entry);
+                return;
+            }
+            try {
+                refresh(uri, entry, entry.keySet.get());
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Background JWKS refresh failed for {}: {}", uri, e.getMessage());
+            }
+        });
+    }
+
+    private KeySet refresh(String jwksUri, Entry entry, KeySet seen) {
+        entry.fetchLock.lock();
+        try {
+            KeySet current = entry.keySet.get();
+            if (current != null && current != seen) {
+                return current; // refreshed by another thread while we waited
+            }
+            try {
+                KeySet fetched = new KeySet(fetch(jwksUri), System.nanoTime());
+                entry.keySet.set(fetched);
+                return fetched;
+            } catch (RestClientException e) {
+                if (current != null) {
+                    logger.warn("⚠️ JWKS fetch failed for {}, keeping cached keys: {}", jwksUri, e.getMessage());
+                    return current;
+                }
+                throw new IllegalStateException("Could not fetch JWKS from " + jwksUri + ": " + e.getMessage(), e);
+            }
+        } finally {
+            entry.fetchLock.unlock();
+        }
+    }
+
+    private Map<String, PublicKey> fetch(String jwksUri) {
+        Map<?, ?> document = restTemplate.getForObject(jwksUri, Map.class);
+        Map<String, PublicKey> keys = new HashMap<>();
+        if (document != null && document.get("keys") instanceof List<?> jwks) {
+            for (Object jwk : jwks) {
+                if (!(jwk instanceof Map<?, ?> json) || "enc".equals(json.get("use"))) {
+                    continue;
+                }
+                try {
+                    Object kid = json.get("kid");
+                    keys.put(kid != null ? kid.toString() : NO_KID, toPublicKey(json));
+                } catch (GeneralSecurityException | IllegalArgumentException e) {
+                    logger.warn("⚠️ Skipping unusable JWK {} at {}: {}", json.get("kid"), jwksUri, e.getMessage());
+                }
+            }
+        }
+        logger.info("🔑 Loaded {} signing key(s) from {}", keys.size(), jwksUri);
+        return Map.copyOf(keys);
+    }
+
+    private static PublicKey find(KeySet keySet, String kid) {
+        if (kid != null) {
+            return keySet.keys().get(kid);
+        }
+        // No kid in the token header: only unambiguous with a single published key
+        return keySet.keys().size() == 1 ? keySet.keys().values().iterator().next() : null;
+    }
+
+    /**
+     * Build a public key from an RSA or EC JWK (RFC 7518 section 6).
+     */
+    static PublicKey toPublicKey(Map<?, ?> jwk) throws GeneralSecurityException {
+        String kty = String.valueOf(jwk.get("kty"));
+        switch (kty) {
+            case "RSA":
+                return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                        unsigned(jwk.get("n")), unsigned(jwk.get("e"))));
+            case "EC":
+                AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec(curveName(String.valueOf(jwk.get("crv")))));
+                ECPoint point = new ECPoint(unsigned(jwk.get("x")), unsigned(jwk.get("y")));
+                return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(
+                        point, parameters.getParameterSpec(ECParameterSpec.class)));
+            default:
+                throw new IllegalArgumentException("Unsupported key type: " + kty);
+        }
+    }
+
+    private static String curveName(String crv) {
+        return switch (crv) {
+            case "P-256" -> "secp256r1";
+            case "P-384" -> "secp384r1";
+            case "P-521" -> "secp521r1";
+            default -> throw new IllegalArgumentException("Unsupported curve: " + crv);
+        };
+    }
+
+    private static BigInteger unsigned(Object base64Url) {
+        if (base64Url == null) {
+            throw new IllegalArgumentException("Missing key parameter");
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url.toString()));
+    }
+}
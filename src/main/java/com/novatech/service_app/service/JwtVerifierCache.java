@@ -0,0 +1,90 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of ready-built JWT parsers, one per JWT SSO configuration.
+ * The certificate is read and parsed once; the entry is rebuilt only when the
+ * configured certificate path changes (see SsoManagementService.saveOrUpdateConfig).
+ */
+@Component
+public class JwtVerifierCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtVerifierCache.class);
+
+    private static final long ALLOWED_CLOCK_SKEW_SECONDS = 10;
+
+    /**
+     * A verifier bound to one (config, certificate fingerprint) pair.
+     * JwtParser instances are immutable and thread-safe.
+     */
+    public record Verifier(Long configId, String certificatePath, String fingerprint, JwtParser parser) {}
+
+    private final Map<Long, Verifier> verifiers = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    /**
+     * Get the verifier for a config, building it on first use or after a certificate change.
+     */
+    public Verifier getVerifier(SsoConfiguration config) {
+        Verifier verifier = verifiers.get(config.getId());
+        if (verifier != null && verifier.certificatePath().equals(config.getCertificatePath())) {
+            return verifier;
+        }
+        // Built outside the map lock so certificate I/O never pins a (virtual) thread
+        Verifier built = build(config);
+        verifiers.put(config.getId(), built);
+        return built;
+    }
+
+    /**
+     * Drop the cached verifier for a config (certificate changed or config deleted).
+     */
+    public void invalidate(Long configId) {
+        if (configId == null) {
+            return;
+        }
+        evict(configId);
+        invalidationBus.publish(CacheInvalidationEvent.Type.JWT_VERIFIER, null, configId.toString());
+    }
+
+    public void clear() {
+        verifiers.clear();
+    }
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.JWT_VERIFIER,
+                event -> evict(Long.valueOf(event.key())), this::clear);
+    }
+
+    private void evict(Long configId) {
+        if (verifiers.remove(configId) != null) {
+            logger.info("🧹 JWT verifier invalidated for SSO config {}", configId);
+        }
+    }
+
+    private Verifier build(SsoConfiguration config) {
+        X509Certificate cert = CertificateLoader.load(config.getCertificatePath());
+        String fingerprint = CertificateLoader.fingerprint(cert);
+        JwtParser parser = Jwts.parserBuilder()
+                .setSigningKey(cert.getPublicKey())
+                .setAllowedClockSkewSeconds(ALLOWED_CLOCK_SKEW_SECONDS)
+                .build();
+        logger.info("🔐 JWT verifier built for SSO config {} (cert SHA-256: {})", config.getId(), fingerprint);
+        return new Verifier(config.getId(), config.getCertificatePath(), fingerprint, parser);
+    }
+}
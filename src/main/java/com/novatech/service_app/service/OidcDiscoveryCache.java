@@ -0,0 +1,137 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenID Provider metadata ({@code .well-known/openid-configuration}) per issuer.
+ * <p>
+ * Documents are cached for a TTL; when a refetch fails the previous document keeps
+ * being served. {@link #resolve} merges them with a tenant's config: endpoints typed
+ * into the config win, discovery fills in the rest and supplies the JWKS URI.
+ */
+@Component
+public class OidcDiscoveryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OidcDiscoveryCache.class);
+
+    private static final String WELL_KNOWN_PATH = "/.well-known/openid-configuration";
+
+    /**
+     * Endpoints used for one OIDC login. {@code jwksUri} is null without discovery.
+     */
+    public record ProviderMetadata(String issuer, String authorizationEndpoint, String tokenEndpoint,
+                                   String userinfoEndpoint, String jwksUri) {}
+
+    private record Entry(ProviderMetadata metadata, long expiresAtNanos) {}
+
+    private final Map<String, Entry> byIssuer = new ConcurrentHashMap<>();
+
+    @Autowired
+    @Qualifier("oidcRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Value("${app.oidc.discovery.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    /**
+     * Effective endpoints for a config; without an issuer only the configured values are used.
+     */
+    public ProviderMetadata resolve(SsoConfiguration config) {
+        String issuer = config.getIssuer();
+        if (issuer == null || issuer.isBlank()) {
+            return new ProviderMetadata(null, config.getAuthorizationEndpoint(), config.getTokenEndpoint(),
+                    config.getUserinfoEndpoint(), null);
+        }
+        ProviderMetadata discovered = get(issuer.trim());
+        return new ProviderMetadata(discovered.issuer(),
+                orElse(config.getAuthorizationEndpoint(), discovered.authorizationEndpoint()),
+                orElse(config.getTokenEndpoint(), discovered.tokenEndpoint()),
+                orElse(config.getUserinfoEndpoint(), discovered.userinfoEndpoint()),
+                discovered.jwksUri());
+    }
+
+    public void invalidate(String issuer) {
+        if (issuer == null) {
+            return;
+        }
+        evict(issuer.trim());
+        invalidationBus.publish(CacheInvalidationEvent.Type.OIDC_DISCOVERY, null, issuer.trim());
+    }
+
+    public void clear() {
+        byIssuer.clear();
+    }
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.OIDC_DISCOVERY, event -> evict(event.key()), this::clear);
+    }
+
+    private void evict(String issuer) {
+        if (byIssuer.remove(issuer) != null) {
+            logger.info("🧹 OIDC discovery document invalidated for {}", issuer);
+        }
+    }
+
+    private ProviderMetadata get(String issuer) {
+        Entry entry = byIssuer.get(issuer);
+        if (entry != null && System.nanoTime() - entry.expiresAtNanos() < 0) {
+            return entry.metadata();
+        }
+        try {
+            ProviderMetadata metadata = fetch(issuer);
+            byIssuer.put(issuer, new Entry(metadata, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            return metadata;
+        } catch (RestClientException | IllegalStateException e) {
+            if (entry != null) {
+                logger.warn("⚠️ OIDC discovery refresh failed for {}, keeping previous document: {}",
+                        issuer, e.getMessage());
+                return entry.metadata();
+            }
+            throw new IllegalStateException("OIDC discovery failed for issuer " + issuer + ": " + e.getMessage(), e);
+        }
+    }
+
+    private ProviderMetadata fetch(String issuer) {
+        String url = stripTrailingSlash(issuer) + WELL_KNOWN_PATH;
+        logger.info("📤 Fetching OIDC discovery document: {}", url);
+        Map<?, ?> document = restTemplate.getForObject(url, Map.class);
+        if (document == null) {
+            throw new IllegalStateException("Empty discovery document");
+        }
+        // OIDC Discovery 4.3: the document's issuer must match the one it was fetched for
+        String documentIssuer = (String) document.get("issuer");
+        if (documentIssuer == null || !stripTrailingSlash(documentIssuer).equals(stripTrailingSlash(issuer))) {
+            throw new IllegalStateException("Discovery document issuer mismatch: " + documentIssuer);
+        }
+        return new ProviderMetadata(documentIssuer,
+                (String) document.get("authorization_endpoint"),
+                (String) document.get("token_endpoint"),
+                (String) document.get("userinfo_endpoint"),
+                (String) document.get("jwks_uri"));
+    }
+
+    private static String orElse(String configured, String discovered) {
+        return configured != null && !configured.isBlank() ? configured : discovered;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,117 @@
+package com.novatech.service_app.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local ID token verification (OIDC Core 3.1.3.7): signature against the issuer's
+ * cached JWKS keys, then issuer, audience and expiry. Tokens without keys to check
+ * against are only decoded, but issuer, audience and expiry are checked all the same.
+ * Parsers are immutable and built once per (issuer, JWKS URI).
+ */
+@Component
+public class OidcIdTokenVerifier {
+
+    private static final long ALLOWED_CLOCK_SKEW_SECONDS = 60;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private record ParserKey(String issuer, String jwksUri) {}
+
+    private final Map<ParserKey, JwtParser> parsers = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JwksKeyCache jwksKeyCache;
+
+    /**
+     * Verified claims; throws SecurityException when the token must not be trusted.
+     */
+    public Map<String, Object> verify(String idToken, String issuer, String jwksUri, String clientId) {
+        Claims claims;
+        try {
+            claims = parsers.computeIfAbsent(new ParserKey(issuer, jwksUri), this::buildParser)
+                    .parseClaimsJws(idToken)
+                    .getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new SecurityException("ID token rejected: " + e.getMessage(), e);
+        }
+        if (claims.getExpiration() == null) {
+            throw new SecurityException("ID token rejected: no exp claim");
+        }
+        if (!audienceContains(claims.get("aud"), clientId)) {
+            throw new SecurityException("ID token rejected: audience does not include " + clientId);
+        }
+        return claims;
+    }
+
+    /**
+     * Claims of a token taken straight from the token endpoint over TLS, which waives only
+     * the signature check (OIDC Core 3.1.3.7 item 6). {@code iss} must be present, and equal
+     * {@code issuer} when one is known; {@code aud} must include the client and {@code exp}
+     * must not have passed. Throws SecurityException otherwise.
+     */
+    public Map<String, Object> decode(String idToken, String issuer, String clientId) {
+        Map<String, Object> claims;
+        try {
+            String[] parts = idToken.split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid JWT format");
+            }
+            claims = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(parts[1]), CLAIMS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SecurityException("ID token rejected: " + e.getMessage(), e);
+        }
+        Object iss = claims.get("iss");
+        if (!(iss instanceof String tokenIssuer) || tokenIssuer.isBlank()
+                || (issuer != null && !issuer.equals(tokenIssuer))) {
+            throw new SecurityException("ID token rejected: unexpected issuer " + iss);
+        }
+        if (!audienceContains(claims.get("aud"), clientId)) {
+            throw new SecurityException("ID token rejected: audience does not include " + clientId);
+        }
+        if (!(claims.get("exp") instanceof Number exp)) {
+            throw new SecurityException("ID token rejected: no exp claim");
+        }
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        if (exp.longValue() + ALLOWED_CLOCK_SKEW_SECONDS <= nowSeconds) {
+            throw new SecurityException("ID token rejected: expired");
+        }
+        return claims;
+    }
+
+    private JwtParser buildParser(ParserKey key) {
+        return Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return jwksKeyCache.getKey(key.jwksUri(), header.getKeyId());
+                    }
+                })
+                .requireIssuer(key.issuer())
+                .setAllowedClockSkewSeconds(ALLOWED_CLOCK_SKEW_SECONDS)
+                .build();
+    }
+
+    private static boolean audienceContains(Object aud, String clientId) {
+        if (aud instanceof Collection<?> audiences) {
+            return audiences.contains(clientId);
+        }
+        return aud != null && aud.equals(clientId);
+    }
+}
@@ -1,30 +1,55 @@
 package com.novatech.service_app.service;
 
 import com.novatech.service_app.entity.SsoConfiguration;
-import com.novatech.service_app.repository.SsoConfigurationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 /**
- * OIDC Service - Handles OpenID Connect token exchange and user info retrieval
+ * OIDC Service - Handles OpenID Connect token exchange and user info retrieval.
+ * Endpoints come from the tenant's config, completed by discovery when an issuer is set.
  */
 @Service
 public class OidcService {
 
     private static final Logger logger = LoggerFactory.getLogger(OidcService.class);
 
+    private static final ParameterizedTypeReference<Map<String, Object>> CLAIMS_TYPE_REF =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private SsoConfigCache ssoConfigCache;
+
+    @Autowired
+    private OidcDiscoveryCache oidcDiscoveryCache;
+
+    @Autowired
+    private OidcIdTokenVerifier idTokenVerifier;
+
+    // ✅ Shared pooled client (see OidcHttpClientConfig)
     @Autowired
-    private SsoConfigurationRepository ssoConfigRepository;
+    @Qualifier("oidcRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("oidcWebClient")
+    private WebClient webClient;
 
     /**
      * ✅ Exchange authorization code for access token
@@ -33,45 +58,33 @@ public class OidcService {
     public Map<String, Object> exchangeCodeForToken(String authorizationCode) throws Exception {
         logger.info("=== EXCHANGING OIDC CODE FOR TOKEN ===");
 
-        // Get OIDC config from database
-        Optional<SsoConfiguration> configOpt = ssoConfigRepository.findBySsoType("OIDC");
-
-        if (configOpt.isEmpty()) {
-            throw new IllegalStateException("OIDC configuration not found in database");
-        }
-
-        SsoConfiguration config = configOpt.get();
+        // Get the tenant's OIDC config (in-memory snapshot)
+        SsoConfiguration config = getOidcConfig();
+        String tokenEndpoint = oidcDiscoveryCache.resolve(config).tokenEndpoint();
 
         // Validate required fields
-        if (config.getTokenEndpoint() == null || config.getTokenEndpoint().isBlank()) {
+        if (tokenEndpoint == null || tokenEndpoint.isBlank()) {
             throw new IllegalStateException("OIDC token endpoint not configured");
         }
 
         // Prepare token request
-        RestTemplate restTemplate = new RestTemplate();
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
         // Basic Auth: Base64(client_id:client_secret)
-        String auth = config.getClientId() + ":" + config.getClientSecret();
-        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-        headers.set("Authorization", "Basic " + encodedAuth);
+        headers.set("Authorization", basicAuth(config));
 
         // Request body
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "authorization_code");
-        body.add("code", authorizationCode);
-        body.add("redirect_uri", config.getRedirectUri());
-        body.add("client_id", config.getClientId());
+        MultiValueMap<String, String> body = tokenRequestBody(config, authorizationCode);
 
         HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
 
-        logger.info("📤 Sending token request to: {}", config.getTokenEndpoint());
+        logger.info("📤 Sending token request to: {}", tokenEndpoint);
 
         try {
             // Make token exchange request
             ResponseEntity<Map> response = restTemplate.exchange(
-                    config.getTokenEndpoint(),
+                    tokenEndpoint,
                     HttpMethod.POST,
                     request,
                     Map.class
@@ -96,33 +109,27 @@ public class OidcService {
     public Map<String, Object> getUserInfo(String accessToken) throws Exception {
         logger.info("=== FETCHING OIDC USER INFO ===");
 
-        // Get OIDC config from database
-        Optional<SsoConfiguration> configOpt = ssoConfigRepository.findBySsoType("OIDC");
-
-        if (configOpt.isEmpty()) {
-            throw new IllegalStateException("OIDC configuration not found in database");
-        }
-
-        SsoConfiguration config = configOpt.get();
+        // Get the tenant's OIDC config (in-memory snapshot)
+        SsoConfiguration config = getOidcConfig();
+        String userinfoEndpoint = oidcDiscoveryCache.resolve(config).userinfoEndpoint();
 
         // Check if userinfo endpoint is configured
-        if (config.getUserinfoEndpoint() == null || config.getUserinfoEndpoint().isBlank()) {
+        if (userinfoEndpoint == null || userinfoEndpoint.isBlank()) {
             logger.warn("⚠️ UserInfo endpoint not configured, skipping user info fetch");
             return Map.of();
         }
 
         // Prepare userinfo request
-        RestTemplate restTemplate = new RestTemplate();
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(accessToken);
 
         HttpEntity<String> request = new HttpEntity<>(headers);
 
-        logger.info("📤 Sending userinfo request to: {}", config.getUserinfoEndpoint());
+        logger.info("📤 Sending userinfo request to: {}", userinfoEndpoint);
 
         try {
             ResponseEntity<Map> response = restTemplate.exchange(
-                    config.getUserinfoEndpoint(),
+                    userinfoEndpoint,
                     HttpMethod.GET,
                     request,
                     Map.class
@@ -143,29 +150,142 @@ public class OidcService {
     }
 
     /**
-     * ✅ Parse ID token (JWT) from token response
+     * ID token claims plus whether their signature was checked.
+     */
+    private record IdToken(Map<String, Object> claims, boolean verified) {}
+
+    /**
+     * ✅ Parse ID token (JWT) claims from token response.
+     * With a configured issuer the token is verified locally against the issuer's
+     * cached JWKS keys. Without one, the signature is not checked, since the token came
+     * straight from the token endpoint over TLS (OIDC Core 3.1.3.7); issuer, audience and
+     * expiry are checked either way (SecurityException when invalid).
      */
     public Map<String, Object> parseIdToken(String idToken) {
-        try {
-            // Split JWT into parts
-            String[] parts = idToken.split("\\.");
-            if (parts.length != 3) {
-                throw new IllegalArgumentException("Invalid JWT format");
-            }
+        SsoConfiguration config = getOidcConfig();
+        return readIdToken(config, oidcDiscoveryCache.resolve(config), idToken).claims();
+    }
 
-            // Decode payload (Base64URL)
-            String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
+    private IdToken readIdToken(SsoConfiguration config, OidcDiscoveryCache.ProviderMetadata metadata,
+                                String idToken) {
+        if (metadata.jwksUri() != null) {
+            Map<String, Object> claims = idTokenVerifier.verify(idToken, metadata.issuer(), metadata.jwksUri(),
+                    config.getClientId());
+            logger.debug("✅ ID Token verified, claims: {}", claims.keySet());
+            return new IdToken(claims, true);
+        }
+        Map<String, Object> claims = idTokenVerifier.decode(idToken, metadata.issuer(), config.getClientId());
+        logger.debug("✅ ID Token claims (signature unchecked, no JWKS): {}", claims.keySet());
+        return new IdToken(claims, false);
+    }
 
-            // Parse JSON (simple approach - for production use a JSON library)
-            logger.info("✅ ID Token payload: {}", payload);
+    // ============================================================
+    //                 NON-BLOCKING CALLBACK PIPELINE
+    // ============================================================
 
-            // For now, return empty map - will parse properly later
-            return Map.of("raw_payload", payload);
+    /**
+     * ✅ Resolve user claims for an authorization code without blocking the caller.
+     * Exchanges the code, and skips userinfo when a verified ID token already carries
+     * email and name. The ID token's nonce must match {@code expectedNonce} (the one sent
+     * with the authorization request). The (blocking) config and discovery lookups run
+     * on the calling thread; IdP I/O runs on the pooled non-blocking client.
+     */
+    public Mono<Map<String, Object>> fetchUserClaimsAsync(String authorizationCode, String expectedNonce) {
+        SsoConfiguration config = getOidcConfig();
+        OidcDiscoveryCache.ProviderMetadata metadata = oidcDiscoveryCache.resolve(config);
+        if (metadata.tokenEndpoint() == null || metadata.tokenEndpoint().isBlank()) {
+            return Mono.error(new IllegalStateException("OIDC token endpoint not configured"));
+        }
 
-        } catch (Exception e) {
-            logger.error("❌ Error parsing ID token: {}", e.getMessage());
-            return Map.of();
+        return exchangeCodeForTokenAsync(config, metadata.tokenEndpoint(), authorizationCode)
+                .flatMap(tokenResponse -> {
+                    String accessToken = (String) tokenResponse.get("access_token");
+                    String idToken = (String) tokenResponse.get("id_token");
+                    if (accessToken == null || accessToken.isEmpty()) {
+                        return Mono.error(new IllegalStateException("No access token received"));
+                    }
+
+                    if (idToken == null || idToken.isEmpty()) {
+                        return getUserInfoAsync(metadata.userinfoEndpoint(), accessToken);
+                    }
+
+                    // Verification may refetch JWKS (unknown kid), so keep it off the event loop
+                    return Mono.fromCallable(() -> readIdToken(config, metadata, idToken))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(token -> {
+                                Map<String, Object> idTokenClaims = token.claims();
+                                if (!expectedNonce.equals(idTokenClaims.get("nonce"))) {
+                                    return Mono.error(new SecurityException("ID token nonce mismatch"));
+                                }
+                                if (token.verified() && idTokenClaims.get("email") != null
+                                        && idTokenClaims.get("name") != null) {
+                                    logger.info("✅ Verified ID token carries email and name, skipping userinfo call");
+                                    return Mono.just(idTokenClaims);
+                                }
+                                return getUserInfoAsync(metadata.userinfoEndpoint(), accessToken)
+                                        .map(userInfo -> {
+                                            Map<String, Object> merged = new HashMap<>(idTokenClaims);
+                                            merged.putAll(userInfo);
+                                            return merged;
+                                        });
+                            });
+                });
+    }
+
+    private Mono<Map<String, Object>> exchangeCodeForTokenAsync(SsoConfiguration config, String tokenEndpoint,
+                                                               String authorizationCode) {
+        logger.info("📤 Sending async token request to: {}", tokenEndpoint);
+        return webClient.post()
+                .uri(tokenEndpoint)
+                .header(HttpHeaders.AUTHORIZATION, basicAuth(config))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData(tokenRequestBody(config, authorizationCode)))
+                .retrieve()
+                .bodyToMono(CLAIMS_TYPE_REF)
+                .doOnNext(response -> logger.info("✅ Token exchange successful"))
+                .onErrorMap(e -> new RuntimeException("Failed to exchange authorization code: " + e.getMessage(), e));
+    }
+
+    private Mono<Map<String, Object>> getUserInfoAsync(String userinfoEndpoint, String accessToken) {
+        if (userinfoEndpoint == null || userinfoEndpoint.isBlank()) {
+            logger.warn("⚠️ UserInfo endpoint not configured, skipping user info fetch");
+            return Mono.just(Map.of());
         }
+
+        logger.info("📤 Sending async userinfo request to: {}", userinfoEndpoint);
+        return webClient.get()
+                .uri(userinfoEndpoint)
+                .headers(headers -> headers.setBearerAuth(accessToken))
+                .retrieve()
+                .bodyToMono(CLAIMS_TYPE_REF)
+                .onErrorResume(e -> {
+                    // Don't fail - userinfo is optional
+                    logger.error("❌ UserInfo fetch failed: {}", e.getMessage());
+                    return Mono.just(Map.of());
+                });
+    }
+
+    // ============================================================
+    //                    HELPER METHODS
+    // ============================================================
+
+    private SsoConfiguration getOidcConfig() {
+        return ssoConfigCache.get(TenantContext.getTenantId(), "OIDC")
+                .orElseThrow(() -> new IllegalStateException(
+                        "OIDC configuration not found for tenant " + TenantContext.getTenantId()));
+    }
+
+    private String basicAuth(SsoConfiguration config) {
+        String auth = config.getClientId() + ":" + config.getClientSecret();
+        return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MultiValueMap<String, String> tokenRequestBody(SsoConfiguration config, String authorizationCode) {
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("grant_type", "authorization_code");
+        body.add("code", authorizationCode);
+        body.add("redirect_uri", config.getRedirectUri());
+        body.add("client_id", config.getClientId());
+        return body;
     }
 }
-//working-version
\ No newline at end of file
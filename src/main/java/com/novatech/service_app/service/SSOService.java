@@ -1,41 +1,69 @@
 package com.novatech.service_app.service;
 
 import com.novatech.service_app.entity.SsoConfiguration;
-import com.novatech.service_app.repository.SsoConfigurationRepository;
 import com.novatech.service_app.service.SsoManagementService; // ✅ IMPORT SsoManagementService
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.security.PublicKey;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class SSOService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SSOService.class);
+
     @Autowired
-    private SsoConfigurationRepository ssoConfigRepository;
+    private SsoConfigCache ssoConfigCache;
 
     // ✅ AUTOWIRE SsoManagementService to use its validation logic
     @Autowired
     private SsoManagementService ssoManagementService;
 
+    @Autowired
+    private JwtVerifierCache jwtVerifierCache;
+
+    @Autowired
+    private OidcDiscoveryCache oidcDiscoveryCache;
+
+    @Autowired
+    private SsoLoginStateStore loginStateStore;
+
+    /**
+     * Authorization URL up to (not including) the per-login state and nonce, built once
+     * per config snapshot. {@code source} is the cached config it was built from: a
+     * config write replaces that instance, which retires the template.
+     */
+    private record AuthUrlTemplate(SsoConfiguration source, String authorizationEndpoint, String prefix) {}
+
+    private record TemplateKey(Long tenantId, String ssoType) {}
+
+    /**
+     * Where to send the browser, and the state it must bring back (null for SAML).
+     */
+    public record AuthorizationRedirect(String url, String state) {}
+
+    private final Map<TemplateKey, AuthUrlTemplate> authUrlTemplates = new ConcurrentHashMap<>();
+
     // ============================================================
     //                    AUTHORIZATION URL BUILDER
     // ============================================================
 
     public String getAuthorizationUrl(String ssoType) {
+        return getAuthorizationRedirect(ssoType).url();
+    }
+
+    public AuthorizationRedirect getAuthorizationRedirect(String ssoType) {
         try {
-            Optional<SsoConfiguration> configOpt = ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+            Optional<SsoConfiguration> configOpt = getSsoConfig(ssoType);
             if (configOpt.isEmpty()) {
                 throw new IllegalStateException("SSO configuration not found for type: " + ssoType);
             }
@@ -52,66 +80,90 @@ public class SSOService {
             }
 
             // Build authorization URL based on SSO type
-            String ssoUrl;
-            String encodedRedirect = URLEncoder.encode(config.getRedirectUri(), StandardCharsets.UTF_8);
+            AuthorizationRedirect redirect;
 
             switch (ssoType.toUpperCase()) {
                 case "JWT":
-                    ssoUrl = buildJwtAuthUrl(config, encodedRedirect);
+                    redirect = buildJwtAuthUrl(config);
                     break;
 
                 case "OIDC":
-                    ssoUrl = buildOidcAuthUrl(config, encodedRedirect);
+                    redirect = buildOidcAuthUrl(config);
                     break;
 
                 case "SAML":
-                    ssoUrl = buildSamlAuthUrl(config, encodedRedirect);
+                    redirect = buildSamlAuthUrl(config);
                     break;
 
                 default:
                     throw new IllegalStateException("Unsupported SSO type: " + ssoType);
             }
 
-            System.out.println("🔗 SSO Login URL generated for " + ssoType + ": " + ssoUrl);
-            System.out.println("📍 Redirect URI: " + config.getRedirectUri());
+            // The query string carries the live state and nonce, so only the endpoint is logged
+            logger.info("🔗 SSO Login URL generated for {}: {}", ssoType, withoutQuery(redirect.url()));
+            logger.info("📍 Redirect URI: {}", config.getRedirectUri());
 
-            return ssoUrl;
+            return redirect;
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to build SSO authorization URL: " + e.getMessage(), e);
         }
     }
 
-    private String buildJwtAuthUrl(SsoConfiguration config, String encodedRedirect) {
-        return config.getAuthorizationEndpoint()
-                + "?client_id=" + config.getClientId()
-                + "&redirect_uri=" + encodedRedirect
-                + "&response_type=id_token"
-                + "&scope=openid email profile"
-                + "&nonce=" + System.currentTimeMillis();
+    private AuthorizationRedirect buildJwtAuthUrl(SsoConfiguration config) {
+        return withStateAndNonce(template(config, "JWT", config.getAuthorizationEndpoint(), "id_token",
+                "openid email profile"), "JWT");
     }
 
-    private String buildOidcAuthUrl(SsoConfiguration config, String encodedRedirect) {
+    private AuthorizationRedirect buildOidcAuthUrl(SsoConfiguration config) {
         String scopes = config.getScopes() != null && !config.getScopes().isBlank()
                 ? config.getScopes()
                 : "openid profile email";
-        String encodedScopes = URLEncoder.encode(scopes, StandardCharsets.UTF_8);
-
-        return config.getAuthorizationEndpoint()
-                + "?client_id=" + config.getClientId()
-                + "&redirect_uri=" + encodedRedirect
-                + "&response_type=code"
-                + "&scope=" + encodedScopes
-                + "&state=" + System.currentTimeMillis()
-                + "&nonce=" + System.currentTimeMillis();
+        return withStateAndNonce(template(config, "OIDC", oidcDiscoveryCache.resolve(config).authorizationEndpoint(),
+                "code", scopes), "OIDC");
+    }
+
+    /**
+     * Cached URL prefix for the config, rebuilt when the config or its endpoint changed.
+     */
+    private String template(SsoConfiguration config, String ssoType, String authorizationEndpoint,
+                            String responseType, String scopes) {
+        TemplateKey key = new TemplateKey(TenantContext.getTenantId(), ssoType);
+        AuthUrlTemplate template = authUrlTemplates.get(key);
+        if (template == null || template.source() != config
+                || !template.authorizationEndpoint().equals(authorizationEndpoint)) {
+            String prefix = authorizationEndpoint
+                    + (authorizationEndpoint.contains("?") ? "&" : "?")
+                    + "client_id=" + URLEncoder.encode(config.getClientId(), StandardCharsets.UTF_8)
+                    + "&redirect_uri=" + URLEncoder.encode(config.getRedirectUri(), StandardCharsets.UTF_8)
+                    + "&response_type=" + responseType
+                    + "&scope=" + URLEncoder.encode(scopes, StandardCharsets.UTF_8);
+            template = new AuthUrlTemplate(config, authorizationEndpoint, prefix);
+            authUrlTemplates.put(key, template);
+        }
+        return template.prefix();
+    }
+
+    /**
+     * Append a fresh random state and nonce, remembered until the callback consumes them.
+     * Both are URL-safe Base64, so they need no encoding.
+     */
+    private AuthorizationRedirect withStateAndNonce(String prefix, String ssoType) {
+        SsoLoginStateStore.PendingLogin login = loginStateStore.issue(TenantContext.getTenantId(), ssoType);
+        return new AuthorizationRedirect(prefix + "&state=" + login.state() + "&nonce=" + login.nonce(), login.state());
     }
 
     /**
      * ✅ FIXED: Build SAML authorization URL
      */
-    private String buildSamlAuthUrl(SsoConfiguration config, String encodedRedirect) {
+    private AuthorizationRedirect buildSamlAuthUrl(SsoConfiguration config) {
         // For SP-Initiated SAML, we just redirect to the IdP's SSO URL.
-        return config.getAuthorizationEndpoint();
+        return new AuthorizationRedirect(config.getAuthorizationEndpoint(), null);
+    }
+
+    private static String withoutQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
     }
 
     public String getAuthorizationUrl() {
@@ -123,23 +175,19 @@ public class SSOService {
     // ============================================================
 
     public Map<String, Object> parseJwtToken(String jwtToken) throws Exception {
-        Optional<SsoConfiguration> configOpt = ssoConfigRepository.findBySsoType("JWT");
+        Optional<SsoConfiguration> configOpt = getSsoConfig("JWT");
         if (configOpt.isEmpty()) {
-            throw new IllegalStateException("JWT SSO configuration not found in database");
+            throw new IllegalStateException("JWT SSO configuration not found for tenant " + TenantContext.getTenantId());
         }
         SsoConfiguration config = configOpt.get();
         if (config.getCertificatePath() == null || config.getCertificatePath().isBlank()) {
             throw new IllegalStateException("JWT certificate path not configured");
         }
-        PublicKey publicKey = loadPublicKeyFromCert(config.getCertificatePath());
+        // ✅ Cached parser: certificate is only read again when its path changes
+        JwtParser parser = jwtVerifierCache.getVerifier(config).parser();
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .setAllowedClockSkewSeconds(10)
-                    .build()
-                    .parseClaimsJws(jwtToken)
-                    .getBody();
-            System.out.println("✅ JWT successfully verified. User claims: " + claims);
+            Claims claims = parser.parseClaimsJws(jwtToken).getBody();
+            logger.debug("✅ JWT successfully verified. User claims: {}", claims);
             return claims;
         } catch (SignatureException e) {
             throw new IllegalArgumentException("❌ Invalid JWT signature — certificate mismatch.", e);
@@ -148,33 +196,19 @@ public class SSOService {
         }
     }
 
-    private PublicKey loadPublicKeyFromCert(String certPath) throws Exception {
-        try {
-            String cleanPath = certPath.replace("classpath:", "");
-            ClassPathResource resource = new ClassPathResource(cleanPath);
-            if (!resource.exists()) {
-                throw new IllegalArgumentException("Certificate file not found in classpath: " + cleanPath);
-            }
-            CertificateFactory factory = CertificateFactory.getInstance("X.509");
-            try (InputStream in = resource.getInputStream()) {
-                X509Certificate cert = (X509Certificate) factory.generateCertificate(in);
-                return cert.getPublicKey();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load certificate from: " + certPath + " - " + e.getMessage(), e);
-        }
-    }
-
     // ============================================================
     //                    HELPER METHODS
     // ============================================================
 
+    /**
+     * Current tenant's config, served from the in-memory snapshot (read-only).
+     */
     public Optional<SsoConfiguration> getSsoConfig(String ssoType) {
-        return ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+        return ssoConfigCache.get(TenantContext.getTenantId(), ssoType);
     }
 
     public boolean isSsoAvailable(String ssoType) {
-        Optional<SsoConfiguration> config = ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+        Optional<SsoConfiguration> config = getSsoConfig(ssoType);
         return config.isPresent() && config.get().isEnabled();
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.novatech.service_app.service;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads issuer, audience, conditions, NameID and attributes from the Assertion element
+ * that SamlSignatureVerifier verified. The response is parsed once, by the verifier;
+ * this only walks the signed subtree, along the fixed SAML paths (no tree-wide searches).
+ * <p>
+ * Only elements in the SAML assertion namespace are matched, so nothing outside the
+ * signed Assertion, or in another namespace, is ever picked up.
+ */
+public final class SamlAssertionReader {
+
+    private static final String SAML_ASSERTION_NS = "urn:oasis:names:tc:SAML:2.0:assertion";
+
+    /**
+     * Values read from a SAML response. {@code responseIssuer} is the Response's own
+     * Issuer; everything else comes from the verified Assertion (first occurrence in
+     * document order; attributes map Name -> first AttributeValue).
+     */
+    public record SamlAssertion(
+            String responseIssuer,
+            String issuer,
+            String assertionId,
+            String audience,
+            String notBefore,
+            String notOnOrAfter,
+            boolean conditionsPresent,
+            String nameId,
+            Map<String, String> attributes) {
+
+        /**
+         * Issuer of the Assertion (covered by its signature), falling back to the Response's.
+         */
+        public String effectiveIssuer() {
+            return issuer != null ? issuer : responseIssuer;
+        }
+    }
+
+    private SamlAssertionReader() {}
+
+    /**
+     * Read the values of a signature-verified Assertion element.
+     */
+    public static SamlAssertion read(Element assertion) {
+        String responseIssuer = null;
+        if (assertion.getParentNode() instanceof Element response) {
+            responseIssuer = text(firstChild(response, "Issuer"));
+        }
+
+        Element subject = firstChild(assertion, "Subject");
+        String nameId = subject != null ? text(firstChild(subject, "NameID")) : null;
+
+        Element conditions = firstChild(assertion, "Conditions");
+        String notBefore = null;
+        String notOnOrAfter = null;
+        String audience = null;
+        if (conditions != null) {
+            notBefore = attribute(conditions, "NotBefore");
+            notOnOrAfter = attribute(conditions, "NotOnOrAfter");
+            for (Element restriction : children(conditions, "AudienceRestriction")) {
+                audience = text(firstChild(restriction, "Audience"));
+                if (audience != null) {
+                    break;
+                }
+            }
+        }
+
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (Element statement : children(assertion, "AttributeStatement")) {
+            for (Element attribute : children(statement, "Attribute")) {
+                String name = attribute(attribute, "Name");
+                String value = text(firstChild(attribute, "AttributeValue"));
+                if (name != null && value != null) {
+                    attributes.putIfAbsent(name, value);
+                }
+            }
+        }
+
+        return new SamlAssertion(responseIssuer, text(firstChild(assertion, "Issuer")),
+                attribute(assertion, "ID"), audience, notBefore, notOnOrAfter, conditions != null,
+                nameId, Collections.unmodifiableMap(attributes));
+    }
+
+    private static Element firstChild(Element parent, String localName) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (isSaml(node, localName)) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element parent, String localName) {
+        List<Element> children = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (isSaml(node, localName)) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+    private static boolean isSaml(Node node, String localName) {
+        return node.getNodeType() == Node.ELEMENT_NODE
+                && SAML_ASSERTION_NS.equals(node.getNamespaceURI())
+                && localName.equals(node.getLocalName());
+    }
+
+    private static String text(Element element) {
+        return element != null ? element.getTextContent() : null;
+    }
+
+    private static String attribute(Element element, String name) {
+        return element.hasAttributeNS(null, name) ? element.getAttributeNS(null, name) : null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.novatech.service_app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Replay protection for SAML assertions: each (issuer, assertion ID) is accepted once
+ * and remembered until the assertion's NotOnOrAfter, after which the timestamp check
+ * rejects it anyway.
+ * <p>
+ * IDs live in a map keyed by a SHA-256 of issuer and ID, bounded by {@code max-entries}.
+ * Expiry uses a timing wheel of one-second slots: every ID is queued in the slot of its
+ * expiry second and a background tick drains one slot at a time, so expiring costs
+ * nothing per lookup and never scans the whole map. When the map is full new logins
+ * are refused rather than forgetting IDs that are still valid.
+ * <p>
+ * With {@code app.saml.replay.store=database} IDs are also recorded in the
+ * saml_assertion_replay table, so an assertion accepted on one node is refused on all.
+ */
+@Component
+public class SamlReplayCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SamlReplayCache.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 512;
+
+    /**
+     * Records the ID unless a live row exists; a leftover expired row is taken over.
+     */
+    private static final String CLAIM_SQL = """
+            INSERT INTO saml_assertion_replay (assertion_key, expires_at) VALUES (?, ?)
+            ON CONFLICT (assertion_key) DO UPDATE SET expires_at = EXCLUDED.expires_at
+            WHERE saml_assertion_replay.expires_at <= ?""";
+
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Queue<String>> wheel = new AtomicReferenceArray<>(WHEEL_SLOTS);
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private long sweptTick = Long.MIN_VALUE;
+    private long lastPurgeMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "saml-replay-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * memory (this node only) or database (shared through the saml_assertion_replay table).
+     */
+    @Value("${app.saml.replay.store:memory}")
+    private String store;
+
+    @Value("${app.saml.replay.max-entries:100000}")
+    private int maxEntries;
+
+    /**
+     * Retention for assertions without a NotOnOrAfter.
+     */
+    @Value("${app.saml.replay.default-ttl-seconds:300}")
+    private long defaultTtlSeconds;
+
+    @Value("${app.saml.replay.purge-interval-seconds:300}")
+    private long purgeIntervalSeconds;
+
+    public SamlReplayCache() {
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.set(i, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @PostConstruct
+    void startExpiry() {
+        scheduler.scheduleWithFixedDelay(() -> expire(System.currentTimeMillis()),
+                TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("🛡️ SAML replay cache: store={}, max {} assertions", store, maxEntries);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Record an assertion as used; throws SecurityException if it was seen before.
+     */
+    public void checkAndRecord(String issuer, String assertionId, Instant notOnOrAfter) {
+        if (assertionId == null || assertionId.isBlank()) {
+            throw new SecurityException("SAML Assertion has no ID");
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = notOnOrAfter != null
+                ? notOnOrAfter.toEpochMilli()
+                : now + TimeUnit.SECONDS.toMillis(defaultTtlSeconds);
+        String key = key(issuer, assertionId);
+
+        if (!recordLocally(key, expiresAt, now)) {
+            logger.error("❌ SAML assertion replayed: {} (Issuer: {})", assertionId, issuer);
+            throw new SecurityException("SAML assertion has already been used");
+        }
+        if ("database".equalsIgnoreCase(store) && !recordShared(key, expiresAt, now)) {
+            logger.error("❌ SAML assertion replayed on another node: {} (Issuer: {})", assertionId, issuer);
+            throw new SecurityException("SAML assertion has already been used");
+        }
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    /**
+     * True if the key was not live yet and is now recorded until {@code expiresAt}.
+     */
+    boolean recordLocally(String key, long expiresAt, long now) {
+        if (expiries.size() >= maxEntries) {
+            expire(now);
+            if (expiries.size() >= maxEntries) {
+                logger.warn("⚠️ SAML replay cache full ({} assertions), refusing login", maxEntries);
+                throw new SecurityException("Too many concurrent SAML logins, please retry shortly");
+            }
+        }
+        boolean[] recorded = {false};
+        expiries.compute(key, (k, existing) -> {
+            if (existing != null && existing > now) {
+                return existing;
+            }
+            recorded[0] = true;
+            return expiresAt;
+        });
+        if (recorded[0]) {
+            wheel.get(slot(Math.floorDiv(expiresAt, TICK_MILLIS))).add(key);
+        }
+        return recorded[0];
+    }
+
+    /**
+     * Advance the wheel to {@code now}, dropping every ID whose expiry has passed.
+     */
+    void expire(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            // Only whole past seconds: everything queued there has expired by now
+            long lastTick = Math.floorDiv(now, TICK_MILLIS) - 1;
+            // A full turn visits every slot once, so a longer gap needs no more work
+            for (long t = Math.max(sweptTick + 1, lastTick - WHEEL_SLOTS + 1); t <= lastTick; t++) {
+                drain(slot(t), now);
+            }
+            sweptTick = Math.max(sweptTick, lastTick);
+            purgeShared(now);
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void drain(int slot, long now) {
+        Queue<String> due = wheel.getAndSet(slot, new ConcurrentLinkedQueue<>());
+        for (String key : due) {
+            Long expiresAt = expiries.get(key);
+            if (expiresAt == null) {
+                continue;
+            }
+            if (expiresAt <= now) {
+                expiries.remove(key, expiresAt);
+            } else if (slot(Math.floorDiv(expiresAt, TICK_MILLIS)) == slot) {
+                // Expires on a later turn of the wheel (or was re-recorded); keep it queued
+                wheel.get(slot).add(key);
+            }
+        }
+    }
+
+    private boolean recordShared(String key, long expiresAt, long now) {
+        try {
+            return jdbcTemplate.update(CLAIM_SQL, key, new Timestamp(expiresAt), new Timestamp(now)) == 1;
+        } catch (DataAccessException e) {
+            // Fail closed: without the shared store we can't tell whether another node saw it
+            expiries.remove(key, expiresAt);
+            logger.error("❌ SAML replay store unavailable: {}", e.getMessage());
+            throw new SecurityException("SAML replay check unavailable", e);
+        }
+    }
+
+    private void purgeShared(long now) {
+        if (!"database".equalsIgnoreCase(store)
+                || now - lastPurgeMillis < TimeUnit.SECONDS.toMillis(purgeIntervalSeconds)) {
+            return;
+        }
+        lastPurgeMillis = now;
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM saml_assertion_replay WHERE expires_at <= ?",
+                    new Timestamp(now));
+            logger.debug("🧹 Purged {} expired SAML assertion IDs", purged);
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Could not purge expired SAML assertion IDs: {}", e.getMessage());
+        }
+    }
+
+    private static int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+    }
+
+    static String key(String issuer, String assertionId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((issuer != null ? issuer : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(assertionId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
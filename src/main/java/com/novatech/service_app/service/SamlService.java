@@ -1,23 +1,13 @@
 package com.novatech.service_app.service;
 
 import com.novatech.service_app.entity.SsoConfiguration;
-import com.novatech.service_app.repository.SsoConfigurationRepository;
+import com.novatech.service_app.service.SamlAssertionReader.SamlAssertion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.security.PublicKey;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
+
 import java.time.Instant;
 import java.util.Base64;
 import java.util.HashMap;
@@ -33,17 +23,23 @@ public class SamlService {
     private static final Logger logger = LoggerFactory.getLogger(SamlService.class);
 
     @Autowired
-    private SsoConfigurationRepository ssoConfigRepository;
+    private SsoConfigCache ssoConfigCache;
+
+    @Autowired
+    private SamlSignatureVerifier samlSignatureVerifier;
+
+    @Autowired
+    private SamlReplayCache samlReplayCache;
 
     /**
      * ✅ Parse and validate SAML response
      */
     public Map<String, Object> parseSamlResponse(String samlResponse) throws Exception {
         logger.info("=== PARSING SAML RESPONSE ===");
-        // Get SAML config from database
-        Optional<SsoConfiguration> configOpt = ssoConfigRepository.findBySsoType("SAML");
+        // Get the tenant's SAML config (in-memory snapshot)
+        Optional<SsoConfiguration> configOpt = ssoConfigCache.get(TenantContext.getTenantId(), "SAML");
         if (configOpt.isEmpty()) {
-            throw new IllegalStateException("SAML configuration not found in database");
+            throw new IllegalStateException("SAML configuration not found for tenant " + TenantContext.getTenantId());
         }
 
         SsoConfiguration config = configOpt.get();
@@ -52,40 +48,37 @@ public class SamlService {
             byte[] decodedBytes = Base64.getDecoder().decode(samlResponse);
             logger.info("✅ SAML Response decoded");
 
-            // Parse XML
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new ByteArrayInputStream(decodedBytes));
-
             // ============================================================
             //                ✅ START SAML VALIDATION
             // ============================================================
 
-            // 1. Validate Signature (using the certificate)
-            if (config.getCertificatePath() != null && !config.getCertificatePath().isBlank()) {
-                boolean signatureValid = validateSamlSignature(doc, config.getCertificatePath());
-                if (!signatureValid) {
-                    // In production, you should throw an exception here.
-                    // For now, we'll log a strong warning.
-                    logger.warn("⚠️⚠️⚠️ SAML SIGNATURE VALIDATION FAILED. ⚠️⚠️⚠️");
-                    // throw new SecurityException("SAML Signature validation failed.");
-                } else {
-                    logger.info("✅ SAML Signature Verified");
-                }
+            // 1. Validate Signature (XML-DSig against the cached IdP key)
+            if (config.getCertificatePath() == null || config.getCertificatePath().isBlank()) {
+                throw new IllegalStateException("SAML certificate path not configured");
             }
+            logger.info("🔐 Validating SAML signature...");
+            Element verifiedAssertion = samlSignatureVerifier.verifyAssertion(decodedBytes, config)
+                    .orElseThrow(() -> {
+                        logger.error("❌ SAML SIGNATURE VALIDATION FAILED");
+                        return new SecurityException("SAML Signature validation failed.");
+                    });
+            logger.info("✅ SAML Signature Verified");
+
+            // Values come from the signed Assertion subtree of that same parse
+            SamlAssertion assertion = SamlAssertionReader.read(verifiedAssertion);
+            String verifiedAssertionId = assertion.assertionId();
 
             // 2. Validate Issuer (Who sent this token?)
-            String samlIssuer = getXmlElementText(doc, "Issuer");
+            String samlIssuer = assertion.effectiveIssuer();
             String configuredIssuer = config.getIssuer();
-            if (!samlIssuer.equals(configuredIssuer)) {
+            if (samlIssuer == null || !samlIssuer.equals(configuredIssuer)) {
                 logger.error("❌ SAML Issuer mismatch. Expected: [{}], Received: [{}]", configuredIssuer, samlIssuer);
                 throw new SecurityException("Invalid SAML Issuer");
             }
             logger.info("✅ SAML Issuer Verified: {}", samlIssuer);
 
             // 3. Validate Audience (Who is this token for?)
-            String samlAudience = getXmlElementText(doc, "Audience");
+            String samlAudience = assertion.audience();
             String configuredAudience = config.getDomain(); // We store SP Entity ID in the 'domain' field
             if (samlAudience != null && !samlAudience.equals(configuredAudience)) {
                 logger.error("❌ SAML Audience mismatch. Expected: [{}], Received: [{}]", configuredAudience, samlAudience);
@@ -94,14 +87,18 @@ public class SamlService {
             logger.info("✅ SAML Audience Verified: {}", samlAudience);
 
             // 4. Validate Timestamps (Is this token still valid?)
-            validateTimestamps(doc);
+            validateTimestamps(assertion);
+
+            // 5. Reject replays (each assertion ID is accepted once until it expires).
+            // Keyed on the signed assertion only, so re-wrapping it in a new Response does not help.
+            samlReplayCache.checkAndRecord(configuredIssuer, verifiedAssertionId, parseInstant(assertion.notOnOrAfter()));
 
             // ============================================================
             //                ✅ END SAML VALIDATION
             // ============================================================
 
             // Extract attributes
-            Map<String, Object> attributes = extractSamlAttributes(doc);
+            Map<String, Object> attributes = extractSamlAttributes(assertion);
 
             logger.info("✅ SAML response parsed successfully");
             logger.info("Extracted attributes: {}", attributes);
@@ -117,46 +114,35 @@ public class SamlService {
     /**
      * Extract user attributes from SAML assertion
      */
-    private Map<String, Object> extractSamlAttributes(Document doc) {
+    private Map<String, Object> extractSamlAttributes(SamlAssertion assertion) {
         Map<String, Object> attributes = new HashMap<>();
         try {
             // Extract NameID (usually the email)
-            NodeList nameIdNodes = doc.getElementsByTagNameNS("*", "NameID");
-            if (nameIdNodes.getLength() > 0) {
-                String nameId = nameIdNodes.item(0).getTextContent();
+            String nameId = assertion.nameId();
+            if (nameId != null) {
                 attributes.put("nameId", nameId);
                 logger.info("Found NameID: {}", nameId);
             }
 
             // Extract AttributeStatements
-            NodeList attributeNodes = doc.getElementsByTagNameNS("*", "Attribute");
-            for (int i = 0; i < attributeNodes.getLength(); i++) {
-                Element attribute = (Element) attributeNodes.item(i);
-                String attrName = attribute.getAttribute("Name");
-
-                NodeList valueNodes = attribute.getElementsByTagNameNS("*", "AttributeValue");
-                if (valueNodes.getLength() > 0) {
-                    String attrValue = valueNodes.item(0).getTextContent();
-                    String normalizedKey = normalizeSamlAttributeName(attrName);
-                    attributes.put(normalizedKey, attrValue);
-                    logger.info("Found attribute: {} = {}", normalizedKey, attrValue);
-                }
+            for (Map.Entry<String, String> attribute : assertion.attributes().entrySet()) {
+                String normalizedKey = normalizeSamlAttributeName(attribute.getKey());
+                attributes.put(normalizedKey, attribute.getValue());
+                logger.info("Found attribute: {} = {}", normalizedKey, attribute.getValue());
             }
 
             // Ensure we have at least an email
             if (!attributes.containsKey("email")) {
-                String nameId = (String) attributes.get("nameId");
                 if (nameId != null && nameId.contains("@")) {
                     attributes.put("email", nameId);
                 }
             }
 
-            // Set default name if not present
+            // Build the name from its parts if not present. No email-based fallback here:
+            // "name" must only hold what the IdP asserted, since it is synced to the user.
             if (!attributes.containsKey("name")) {
                 if(attributes.containsKey("firstName") && attributes.containsKey("lastName")) {
                     attributes.put("name", attributes.get("firstName") + " " + attributes.get("lastName"));
-                } else if (attributes.containsKey("email")) {
-                    attributes.put("name", attributes.get("email").toString().split("@")[0]);
                 }
             }
 
@@ -191,77 +177,21 @@ public class SamlService {
         }
     }
 
-    /**
-     * Validate SAML signature using IdP certificate
-     */
-    private boolean validateSamlSignature(Document doc, String certPath) {
-        try {
-            logger.info("🔐 Validating SAML signature...");
-            PublicKey publicKey = loadPublicKeyFromCert(certPath);
-            NodeList signatureNodes = doc.getElementsByTagNameNS("http://www.w3.org/2000/09/xmldsig#", "Signature");
-            if (signatureNodes.getLength() == 0) {
-                logger.warn("⚠️ No signature found in SAML response. THIS IS INSECURE.");
-                return false; // Or true if you want to allow it, but it's a security risk
-            }
-
-            // This is a basic check. Full XMLD-SIG validation is very complex.
-            // For production, a dedicated SAML library (like Spring SAML) is recommended.
-            // For now, we just check that a signature exists and we can load the cert.
-            logger.info("✅ SAML signature element found (Basic check passed).");
-            return true;
-
-        } catch (Exception e) {
-            logger.error("❌ Error validating SAML signature: {}", e.getMessage(), e);
-            return false;
-        }
-    }
-
-    /**
-     * Load public key certificate for SAML signature verification
-     */
-    private PublicKey loadPublicKeyFromCert(String certPath) throws Exception {
-        try {
-            String cleanPath = certPath.replace("classpath:", "");
-            ClassPathResource resource = new ClassPathResource(cleanPath);
-
-            if (!resource.exists()) {
-                throw new IllegalArgumentException("Certificate file not found in classpath: " + cleanPath);
-            }
-
-            CertificateFactory factory = CertificateFactory.getInstance("X.509");
-            try (InputStream in = resource.getInputStream()) {
-                X509Certificate cert = (X509Certificate) factory.generateCertificate(in);
-                return cert.getPublicKey();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load certificate from: " + certPath + " - " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Helper to get text from an XML element
-     */
-    private String getXmlElementText(Document doc, String tagName) {
-        NodeList nodes = doc.getElementsByTagNameNS("*", tagName);
-        if (nodes.getLength() > 0) {
-            return nodes.item(0).getTextContent();
-        }
-        return null;
+    private static Instant parseInstant(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value);
     }
 
     /**
      * Helper to validate NotBefore and NotOnOrAfter timestamps
      */
-    private void validateTimestamps(Document doc) throws Exception {
-        NodeList conditionsList = doc.getElementsByTagNameNS("*", "Conditions");
-        if (conditionsList.getLength() == 0) {
+    private void validateTimestamps(SamlAssertion assertion) throws Exception {
+        if (!assertion.conditionsPresent()) {
             logger.warn("⚠️ No <Conditions> block found in SAML. Skipping timestamp validation.");
             return;
         }
 
-        Element conditions = (Element) conditionsList.item(0);
-        String notBefore = conditions.getAttribute("NotBefore");
-        String notOnOrAfter = conditions.getAttribute("NotOnOrAfter");
+        String notBefore = assertion.notBefore();
+        String notOnOrAfter = assertion.notOnOrAfter();
 
         Instant now = Instant.now();
 
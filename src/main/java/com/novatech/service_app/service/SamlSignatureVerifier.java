@@ -0,0 +1,226 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.KeySelector;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * XML-DSig verification of SAML responses against the IdP certificate.
+ * <p>
+ * The IdP public key is loaded once per SSO config and cached until the certificate
+ * path changes. DocumentBuilder and XMLSignatureFactory are not thread-safe, so they
+ * are kept in a small pool of reusable contexts instead of being rebuilt per login.
+ * <p>
+ * Only enveloped signatures on the Response root or on its single Assertion are
+ * accepted, and each signature must reference its own parent element. The verified
+ * Assertion element is handed back, so callers read values from the very subtree the
+ * signature covers, out of the same parse (no signature-wrapping gap between two parsers).
+ */
+@Component
+public class SamlSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SamlSignatureVerifier.class);
+
+    private static final String SAML_ASSERTION_NS = "urn:oasis:names:tc:SAML:2.0:assertion";
+    private static final int MAX_POOLED_CONTEXTS = 64;
+
+    private record SigningKey(String certificatePath, String fingerprint, PublicKey publicKey) {}
+
+    private record VerificationContext(DocumentBuilder documentBuilder, XMLSignatureFactory signatureFactory) {}
+
+    private final Map<Long, SigningKey> signingKeys = new ConcurrentHashMap<>();
+    private final Deque<VerificationContext> contextPool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooledContexts = new AtomicInteger();
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    /**
+     * Verify a decoded SAML response with the config's IdP certificate and return the
+     * Assertion element the signature covers (empty when invalid). Values must be read
+     * from that element only (SamlAssertionReader.read).
+     */
+    public Optional<Element> verifyAssertion(byte[] samlXml, SsoConfiguration config) {
+        return verifyAssertion(samlXml, getSigningKey(config).publicKey());
+    }
+
+    /**
+     * Verify a decoded SAML response with the given key; see {@link #verifyAssertion(byte[], SsoConfiguration)}.
+     */
+    public Optional<Element> verifyAssertion(byte[] samlXml, PublicKey publicKey) {
+        VerificationContext context = borrowContext();
+        try {
+            Document doc = context.documentBuilder().parse(new ByteArrayInputStream(samlXml));
+            return Optional.ofNullable(verifyDocument(doc, publicKey, context.signatureFactory()));
+        } catch (Exception e) {
+            logger.error("❌ Error validating SAML signature: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            context.documentBuilder().reset();
+            releaseContext(context);
+        }
+    }
+
+    /**
+     * Drop the cached IdP key for a config (certificate changed or config deleted).
+     */
+    public void invalidate(Long configId) {
+        if (configId == null) {
+            return;
+        }
+        evict(configId);
+        invalidationBus.publish(CacheInvalidationEvent.Type.SAML_SIGNING_KEY, null, configId.toString());
+    }
+
+    public void clear() {
+        signingKeys.clear();
+    }
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.SAML_SIGNING_KEY,
+                event -> evict(Long.valueOf(event.key())), this::clear);
+    }
+
+    private void evict(Long configId) {
+        if (signingKeys.remove(configId) != null) {
+            logger.info("🧹 SAML signing key invalidated for SSO config {}", configId);
+        }
+    }
+
+    /**
+     * Validate every signature; returns the verified Assertion, or null when invalid.
+     */
+    private Element verifyDocument(Document doc, PublicKey publicKey, XMLSignatureFactory factory) throws Exception {
+        Element root = doc.getDocumentElement();
+
+        NodeList assertions = doc.getElementsByTagNameNS(SAML_ASSERTION_NS, "Assertion");
+        if (assertions.getLength() != 1) {
+            logger.warn("⚠️ Expected exactly one SAML Assertion, found {}", assertions.getLength());
+            return null;
+        }
+        Element assertion = (Element) assertions.item(0);
+        if (assertion != root && assertion.getParentNode() != root) {
+            logger.warn("⚠️ SAML Assertion is not a direct child of the Response");
+            return null;
+        }
+        if (assertion.getAttribute("ID").isEmpty()) {
+            logger.warn("⚠️ SAML Assertion has no ID");
+            return null;
+        }
+
+        // Register IDs only on the two elements a signature may cover
+        markId(root);
+        markId(assertion);
+
+        NodeList signatures = doc.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+        if (signatures.getLength() == 0) {
+            logger.warn("⚠️ No signature found in SAML response. THIS IS INSECURE.");
+            return null;
+        }
+
+        for (int i = 0; i < signatures.getLength(); i++) {
+            Element signatureElement = (Element) signatures.item(i);
+            Node signed = signatureElement.getParentNode();
+            if (signed != root && signed != assertion) {
+                logger.warn("⚠️ SAML signature found on an unexpected element: {}", signed.getLocalName());
+                return null;
+            }
+
+            DOMValidateContext validateContext =
+                    new DOMValidateContext(KeySelector.singletonKeySelector(publicKey), signatureElement);
+            validateContext.setProperty("org.jcp.xml.dsig.secureValidation", Boolean.TRUE);
+            XMLSignature signature = factory.unmarshalXMLSignature(validateContext);
+
+            List<Reference> references = signature.getSignedInfo().getReferences();
+            String expectedUri = "#" + ((Element) signed).getAttribute("ID");
+            String uri = references.size() == 1 ? references.get(0).getURI() : null;
+            boolean wholeDocument = signed == root && "".equals(uri);
+            if (!wholeDocument && !expectedUri.equals(uri)) {
+                logger.warn("⚠️ SAML signature does not reference its enclosing element");
+                return null;
+            }
+
+            if (!signature.validate(validateContext)) {
+                logger.warn("⚠️ SAML signature value or digest mismatch");
+                return null;
+            }
+        }
+        return assertion;
+    }
+
+    private static void markId(Element element) {
+        if (element.hasAttributeNS(null, "ID")) {
+            element.setIdAttributeNS(null, "ID", true);
+        }
+    }
+
+    private SigningKey getSigningKey(SsoConfiguration config) {
+        SigningKey key = signingKeys.get(config.getId());
+        if (key != null && key.certificatePath().equals(config.getCertificatePath())) {
+            return key;
+        }
+        X509Certificate cert = CertificateLoader.load(config.getCertificatePath());
+        key = new SigningKey(config.getCertificatePath(), CertificateLoader.fingerprint(cert), cert.getPublicKey());
+        signingKeys.put(config.getId(), key);
+        logger.info("🔐 SAML signing key loaded for SSO config {} (cert SHA-256: {})",
+                config.getId(), key.fingerprint());
+        return key;
+    }
+
+    private VerificationContext borrowContext() {
+        VerificationContext context = contextPool.pollFirst();
+        if (context != null) {
+            pooledContexts.decrementAndGet();
+            return context;
+        }
+        return new VerificationContext(newDocumentBuilder(), XMLSignatureFactory.getInstance("DOM"));
+    }
+
+    private void releaseContext(VerificationContext context) {
+        if (pooledContexts.incrementAndGet() <= MAX_POOLED_CONTEXTS) {
+            contextPool.offerFirst(context);
+        } else {
+            pooledContexts.decrementAndGet();
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            return factory.newDocumentBuilder();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create XML parser: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.novatech.service_app.service;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The authenticated user as kept in the HTTP session: ids, role, user type and the
+ * login email (the Authentication name). No password hash, display name or JPA
+ * entity, so the serialized session stays small and can live in a shared store.
+ */
+public record SessionPrincipal(Long userId, Long tenantId, String email, String role, String userType)
+        implements Principal, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static SessionPrincipal from(CustomUserDetails details) {
+        return new SessionPrincipal(details.getUserId(), details.getTenantId(), details.getUsername(),
+                details.getRole(), details.getUserType());
+    }
+
+    /**
+     * Principal for an SSO login (tenant users only).
+     */
+    public static SessionPrincipal forSso(Long userId, Long tenantId, String email, String role) {
+        return new SessionPrincipal(userId, tenantId, email, role,
+                "ROLE_ADMIN".equals(role) ? "TENANT_ADMIN" : "END_USER");
+    }
+
+    /**
+     * Authenticated token carrying this principal and its single role.
+     */
+    public Authentication toAuthentication(Object details) {
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                this, null, List.of(new SimpleGrantedAuthority(role)));
+        token.setDetails(details);
+        return token;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
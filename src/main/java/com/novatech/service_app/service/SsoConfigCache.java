@@ -0,0 +1,130 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import com.novatech.service_app.repository.SsoConfigurationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-tenant snapshot of SSO configurations (ssoType -> config).
+ * Loaded with one query per tenant and used by the SSO login/callback paths, so
+ * resolving a tenant's IdP config is a map lookup instead of a DB hit.
+ * <p>
+ * Loaded entities are detached from the request's persistence context (open-in-view
+ * keeps it open) before caching, so the shared copies are never flushed or lazily
+ * loaded through another request's session; their lazy {@code tenant} is not
+ * initialized and must not be read. Treat them as read-only. Admin pages that edit a config load it from the repository instead. Writes on
+ * another node arrive through the {@link CacheInvalidationBus}.
+ */
+@Component
+public class SsoConfigCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SsoConfigCache.class);
+
+    /**
+     * Snapshot key used for legacy configs in superadmin context (tenant IDs start at 1).
+     */
+    private static final Long NO_TENANT = 0L;
+
+    @Autowired
+    private SsoConfigurationRepository ssoConfigRepository;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * A tenant's configs plus the enabled-methods view derived from them.
+     */
+    private record TenantSnapshot(Map<String, SsoConfiguration> configs, EnabledSsoMethods enabledMethods) {}
+
+    private final Map<Long, TenantSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.SSO_CONFIGS,
+                event -> evict(event.tenantId()), this::clear);
+    }
+
+    /**
+     * Get the config of one SSO type for a tenant (tenantId may be null).
+     */
+    public Optional<SsoConfiguration> get(Long tenantId, String ssoType) {
+        return Optional.ofNullable(snapshot(tenantId).get(ssoType.toUpperCase()));
+    }
+
+    /**
+     * Get all SSO configs of a tenant, keyed by SSO type (immutable).
+     */
+    public Map<String, SsoConfiguration> snapshot(Long tenantId) {
+        return tenantSnapshot(tenantId).configs();
+    }
+
+    /**
+     * Which SSO methods are enabled for a tenant (same snapshot, no extra query).
+     */
+    public EnabledSsoMethods enabledMethods(Long tenantId) {
+        return tenantSnapshot(tenantId).enabledMethods();
+    }
+
+    private TenantSnapshot tenantSnapshot(Long tenantId) {
+        Long key = tenantId != null ? tenantId : NO_TENANT;
+        TenantSnapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            long generationAtLoad = generation.get();
+            snapshot = load(tenantId);
+            // Skip caching if an SSO config write raced with this load
+            if (generation.get() == generationAtLoad) {
+                snapshots.put(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop a tenant's snapshot (called on every SSO config write).
+     */
+    public void invalidate(Long tenantId) {
+        CacheInvalidation.nowAndAfterCommit(() -> evict(tenantId));
+        invalidationBus.publish(CacheInvalidationEvent.Type.SSO_CONFIGS, tenantId, null);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private void evict(Long tenantId) {
+        generation.incrementAndGet();
+        snapshots.remove(tenantId != null ? tenantId : NO_TENANT);
+        logger.debug("🧹 SSO config snapshot invalidated for tenant {}", tenantId);
+    }
+
+    private TenantSnapshot load(Long tenantId) {
+        List<SsoConfiguration> configs = tenantId != null
+                ? ssoConfigRepository.findByTenantId(tenantId)
+                : ssoConfigRepository.findByTenantIsNull();
+        Map<String, SsoConfiguration> byType = new HashMap<>();
+        for (SsoConfiguration config : configs) {
+            entityManager.detach(config);
+            byType.put(config.getSsoType(), config);
+        }
+        logger.debug("📥 SSO config snapshot loaded for tenant {}: {}", tenantId, byType.keySet());
+        return new TenantSnapshot(Map.copyOf(byType), EnabledSsoMethods.from(byType));
+    }
+}
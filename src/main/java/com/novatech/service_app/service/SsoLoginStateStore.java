@@ -0,0 +1,208 @@
+package com.novatech.service_app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pending SSO logins: the random {@code state} and {@code nonce} sent to the IdP,
+ * remembered until the callback consumes them (once) or they expire.
+ * <p>
+ * In memory the store is a map plus a FIFO of issued states. Every login gets the
+ * same TTL, so the FIFO is in expiry order: issuing pops expired states off its head
+ * without scanning, and when {@code max-entries} is reached the oldest pending login
+ * is dropped. Consuming is a single map removal.
+ * <p>
+ * With {@code app.sso.state.store=database} pending logins live in the sso_login_state
+ * table instead, so the callback may land on any node.
+ * <p>
+ * A state is only good in the browser that started the login: the controller also
+ * hands it to that browser in a cookie, and the callback must present both.
+ */
+@Component
+public class SsoLoginStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SsoLoginStateStore.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * One authorization request sent to an IdP.
+     */
+    public record PendingLogin(String state, String nonce, Long tenantId, String ssoType, long expiresAtMillis) {}
+
+    private final Map<String, PendingLogin> pending = new ConcurrentHashMap<>();
+    private final Queue<String> issueOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile long lastPurgeMillis;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * memory (this node only) or database (shared through the sso_login_state table).
+     */
+    @Value("${app.sso.state.store:memory}")
+    private String store;
+
+    @Value("${app.sso.state.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${app.sso.state.max-entries:100000}")
+    private int maxEntries;
+
+    /**
+     * Start a login for the tenant: fresh random state and nonce.
+     */
+    public PendingLogin issue(Long tenantId, String ssoType) {
+        return issue(tenantId, ssoType, System.currentTimeMillis());
+    }
+
+    /**
+     * Take the pending login for a callback's state; throws SecurityException when the
+     * state is unknown, already used, expired, was issued for another tenant or flow, or
+     * does not match the state bound to the calling browser ({@code browserState}).
+     */
+    public PendingLogin consume(String state, String browserState, Long tenantId, String ssoType) {
+        return consume(state, browserState, tenantId, ssoType, System.currentTimeMillis());
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    PendingLogin issue(Long tenantId, String ssoType, long now) {
+        PendingLogin login = new PendingLogin(randomToken(), randomToken(), tenantId, ssoType,
+                now + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        if (isDatabase()) {
+            purgeShared(now);
+            jdbcTemplate.update("""
+                    INSERT INTO sso_login_state (state, nonce, tenant_id, sso_type, expires_at)
+                    VALUES (?, ?, ?, ?, ?)""",
+                    login.state(), login.nonce(), tenantId, ssoType, new Timestamp(login.expiresAtMillis()));
+            return login;
+        }
+
+        expire(now);
+        while (queued.get() >= maxEntries && dropOldest() != null) {
+            logger.warn("⚠️ Too many pending SSO logins, dropped the oldest");
+        }
+        pending.put(login.state(), login);
+        issueOrder.add(login.state());
+        queued.incrementAndGet();
+        return login;
+    }
+
+    PendingLogin consume(String state, String browserState, Long tenantId, String ssoType, long now) {
+        if (state == null || state.isBlank()) {
+            throw new SecurityException("Missing SSO state");
+        }
+        // Login CSRF: a state started in another browser is never accepted here
+        if (browserState == null || !MessageDigest.isEqual(state.getBytes(StandardCharsets.US_ASCII),
+                browserState.getBytes(StandardCharsets.US_ASCII))) {
+            logger.error("❌ SSO state was not issued to this browser");
+            throw new SecurityException("SSO state does not belong to this browser");
+        }
+        PendingLogin login = isDatabase() ? consumeShared(state) : pending.remove(state);
+        if (login == null) {
+            logger.error("❌ Unknown or already used SSO state");
+            throw new SecurityException("Unknown or already used SSO state");
+        }
+        if (login.expiresAtMillis() <= now) {
+            throw new SecurityException("SSO login expired, please sign in again");
+        }
+        if (!Objects.equals(login.tenantId(), tenantId) || !login.ssoType().equals(ssoType)) {
+            logger.error("❌ SSO state issued for tenant {} ({}) used on tenant {} ({})",
+                    login.tenantId(), login.ssoType(), tenantId, ssoType);
+            throw new SecurityException("SSO state does not match this login");
+        }
+        return login;
+    }
+
+    // ============================================================
+    //                         EXPIRY
+    // ============================================================
+
+    private void expire(long now) {
+        String head;
+        while ((head = issueOrder.peek()) != null) {
+            PendingLogin login = pending.get(head);
+            // Consumed states are still queued; they're dropped here as they reach the head
+            if (login != null && login.expiresAtMillis() > now) {
+                return;
+            }
+            if (issueOrder.remove(head)) {
+                queued.decrementAndGet();
+                if (login != null) {
+                    pending.remove(head, login);
+                }
+            }
+        }
+    }
+
+    private String dropOldest() {
+        String oldest = issueOrder.poll();
+        if (oldest != null) {
+            queued.decrementAndGet();
+            pending.remove(oldest);
+        }
+        return oldest;
+    }
+
+    // ============================================================
+    //                     SHARED (DATABASE) STORE
+    // ============================================================
+
+    private PendingLogin consumeShared(String state) {
+        List<PendingLogin> rows = jdbcTemplate.query("""
+                DELETE FROM sso_login_state WHERE state = ?
+                RETURNING state, nonce, tenant_id, sso_type, expires_at""",
+                (rs, rowNum) -> new PendingLogin(rs.getString("state"), rs.getString("nonce"),
+                        rs.getObject("tenant_id", Long.class), rs.getString("sso_type"),
+                        rs.getTimestamp("expires_at").getTime()),
+                state);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void purgeShared(long now) {
+        if (now - lastPurgeMillis < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            return;
+        }
+        lastPurgeMillis = now;
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM sso_login_state WHERE expires_at <= ?", new Timestamp(now));
+            logger.debug("🧹 Purged {} expired SSO login states", purged);
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Could not purge expired SSO login states: {}", e.getMessage());
+        }
+    }
+
+    private boolean isDatabase() {
+        return "database".equalsIgnoreCase(store);
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
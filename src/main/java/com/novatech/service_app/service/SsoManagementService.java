@@ -2,35 +2,75 @@ package com.novatech.service_app.service;
 
 import com.novatech.service_app.entity.SsoConfiguration;
 import com.novatech.service_app.repository.SsoConfigurationRepository;
+import com.novatech.service_app.repository.TenantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class SsoManagementService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SsoManagementService.class);
+
     @Autowired
     private SsoConfigurationRepository ssoConfigRepository;
 
-    // ... (getAllConfigurations, getConfigByType, getEnabledConfigurations, isSsoTypeEnabled, isJwtEnabled, isOidcEnabled, isSamlEnabled, saveOrUpdateConfig, toggleSsoEnabled, deleteConfigByType methods are all unchanged) ...
+    @Autowired
+    private JwtVerifierCache jwtVerifierCache;
+
+    @Autowired
+    private SamlSignatureVerifier samlSignatureVerifier;
+
+    @Autowired
+    private OidcDiscoveryCache oidcDiscoveryCache;
+
+    @Autowired
+    private SsoConfigCache ssoConfigCache;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    // All methods below are scoped to the current tenant (TenantContext).
+    // Reads used on login paths come from SsoConfigCache; edits go to the repository.
 
     public List<SsoConfiguration> getAllConfigurations() {
-        return ssoConfigRepository.findAll();
+        Long tenantId = TenantContext.getTenantId();
+        return tenantId != null
+                ? ssoConfigRepository.findByTenantId(tenantId)
+                : ssoConfigRepository.findByTenantIsNull();
     }
 
+    /**
+     * Load the current tenant's config from the DB (a fresh, editable entity).
+     */
     public Optional<SsoConfiguration> getConfigByType(String ssoType) {
-        return ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+        return findOwnConfig(TenantContext.getTenantId(), ssoType.toUpperCase());
     }
 
     public List<SsoConfiguration> getEnabledConfigurations() {
-        return ssoConfigRepository.findByEnabledTrue();
+        return ssoConfigCache.snapshot(TenantContext.getTenantId()).values().stream()
+                .filter(SsoConfiguration::isEnabled)
+                .toList();
     }
 
     public boolean isSsoTypeEnabled(String ssoType) {
-        return ssoConfigRepository.existsBySsoTypeAndEnabledTrue(ssoType.toUpperCase());
+        return ssoConfigCache.get(TenantContext.getTenantId(), ssoType)
+                .map(SsoConfiguration::isEnabled)
+                .orElse(false);
+    }
+
+    /**
+     * Enabled SSO methods of the current tenant, from the cached snapshot
+     * (one query per tenant until the next save/toggle/delete).
+     */
+    public EnabledSsoMethods getEnabledSsoMethods() {
+        return ssoConfigCache.enabledMethods(TenantContext.getTenantId());
     }
 
     public boolean isJwtEnabled() {
@@ -51,9 +91,19 @@ public class SsoManagementService {
             throw new IllegalArgumentException("SSO type cannot be null or empty");
         }
         config.setSsoType(config.getSsoType().toUpperCase());
-        Optional<SsoConfiguration> existingConfig = ssoConfigRepository.findBySsoType(config.getSsoType());
+        Long tenantId = TenantContext.getTenantId();
+        ssoConfigCache.invalidate(tenantId);
+        Optional<SsoConfiguration> existingConfig = findOwnConfig(tenantId, config.getSsoType());
         if (existingConfig.isPresent()) {
             SsoConfiguration existing = existingConfig.get();
+            if (!Objects.equals(existing.getCertificatePath(), config.getCertificatePath())) {
+                jwtVerifierCache.invalidate(existing.getId());
+                samlSignatureVerifier.invalidate(existing.getId());
+            }
+            if ("OIDC".equals(existing.getSsoType())) {
+                // Re-saving refetches the provider's discovery document on the next login
+                oidcDiscoveryCache.invalidate(existing.getIssuer());
+            }
             existing.setProviderName(config.getProviderName());
             existing.setClientId(config.getClientId());
             existing.setClientSecret(config.getClientSecret());
@@ -66,40 +116,56 @@ public class SsoManagementService {
             existing.setIssuer(config.getIssuer());
             existing.setScopes(config.getScopes());
             existing.setEnabled(config.isEnabled());
-            System.out.println("✅ Updated existing SSO config: " + config.getSsoType());
+            existing.setAllowUnsolicitedLogin(config.isAllowUnsolicitedLogin());
+            logger.info("✅ Updated existing SSO config: {}", config.getSsoType());
             return ssoConfigRepository.save(existing);
         } else {
-            System.out.println("✅ Created new SSO config: " + config.getSsoType());
+            if (tenantId != null) {
+                config.setTenant(tenantRepository.getReferenceById(tenantId));
+            }
+            logger.info("✅ Created new SSO config: {} (Tenant: {})", config.getSsoType(), tenantId);
             return ssoConfigRepository.save(config);
         }
     }
 
     @Transactional
     public boolean toggleSsoEnabled(String ssoType, boolean enabled) {
-        Optional<SsoConfiguration> config = ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+        Long tenantId = TenantContext.getTenantId();
+        ssoConfigCache.invalidate(tenantId);
+        Optional<SsoConfiguration> config = findOwnConfig(tenantId, ssoType.toUpperCase());
         if (config.isPresent()) {
             SsoConfiguration ssoConfig = config.get();
             ssoConfig.setEnabled(enabled);
             ssoConfigRepository.save(ssoConfig);
-            System.out.println("✅ SSO " + ssoType + " enabled status: " + enabled);
+            logger.info("✅ SSO {} enabled status: {}", ssoType, enabled);
             return true;
         }
-        System.err.println("❌ SSO config not found for type: " + ssoType);
+        logger.error("❌ SSO config not found for type: {}", ssoType);
         return false;
     }
 
     @Transactional
     public boolean deleteConfigByType(String ssoType) {
-        Optional<SsoConfiguration> config = ssoConfigRepository.findBySsoType(ssoType.toUpperCase());
+        Long tenantId = TenantContext.getTenantId();
+        ssoConfigCache.invalidate(tenantId);
+        Optional<SsoConfiguration> config = findOwnConfig(tenantId, ssoType.toUpperCase());
         if (config.isPresent()) {
             ssoConfigRepository.delete(config.get());
-            System.out.println("✅ Deleted SSO config: " + ssoType);
+            jwtVerifierCache.invalidate(config.get().getId());
+            samlSignatureVerifier.invalidate(config.get().getId());
+            logger.info("✅ Deleted SSO config: {}", ssoType);
             return true;
         }
-        System.err.println("❌ SSO config not found for deletion: " + ssoType);
+        logger.error("❌ SSO config not found for deletion: {}", ssoType);
         return false;
     }
 
+    private Optional<SsoConfiguration> findOwnConfig(Long tenantId, String ssoType) {
+        return tenantId != null
+                ? ssoConfigRepository.findByTenantIdAndSsoType(tenantId, ssoType)
+                : ssoConfigRepository.findByTenantIsNullAndSsoType(ssoType);
+    }
+
     // ============================================================
     //                    VALIDATION HELPERS (UPDATED)
     // ============================================================
@@ -120,10 +186,12 @@ public class SsoManagementService {
                         && config.getCertificatePath() != null && !config.getCertificatePath().isBlank();
 
             case "OIDC":
+                // Endpoints may be left empty when an issuer is set: discovery provides them
                 return config.getClientId() != null && !config.getClientId().isBlank()
                         && config.getClientSecret() != null && !config.getClientSecret().isBlank()
-                        && config.getAuthorizationEndpoint() != null && !config.getAuthorizationEndpoint().isBlank()
-                        && config.getTokenEndpoint() != null && !config.getTokenEndpoint().isBlank()
+                        && ((config.getIssuer() != null && !config.getIssuer().isBlank())
+                            || (config.getAuthorizationEndpoint() != null && !config.getAuthorizationEndpoint().isBlank()
+                                && config.getTokenEndpoint() != null && !config.getTokenEndpoint().isBlank()))
                         && config.getRedirectUri() != null && !config.getRedirectUri().isBlank();
 
             // ✅ UPDATED SAML CASE
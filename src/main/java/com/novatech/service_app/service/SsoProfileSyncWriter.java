@@ -0,0 +1,124 @@
+package com.novatech.service_app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes SSO profile changes (name, role) in JDBC batches.
+ * <p>
+ * Updates are queued per user (the latest one wins) and flushed after a short delay,
+ * or at once when a batch fills up, so a burst of logins costs one batched statement
+ * rather than one UPDATE per login. A failed flush is logged and dropped: the next
+ * login of that user detects the same difference and queues it again.
+ */
+@Component
+public class SsoProfileSyncWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SsoProfileSyncWriter.class);
+
+    private static final String UPDATE = """
+            UPDATE users SET full_name = ?, role = ?, updated_at = ?
+            WHERE id = ? AND tenant_id = ? AND (full_name IS DISTINCT FROM ? OR role IS DISTINCT FROM ?)""";
+
+    /**
+     * A pending profile change for one user.
+     */
+    public record PendingUpdate(Long userId, Long tenantId, String email, String fullName, String role) {}
+
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sso-profile-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Value("${app.sso.profile-sync.flush-delay-ms:200}")
+    private long flushDelayMs;
+
+    @Value("${app.sso.profile-sync.batch-size:100}")
+    private int batchSize;
+
+    public void enqueue(PendingUpdate update) {
+        pending.put(update.userId(), update);
+        if (pending.size() >= batchSize) {
+            scheduler.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write everything queued so far. Runs on the single scheduler thread (and once on shutdown).
+     */
+    void flush() {
+        flushScheduled.set(false);
+        List<PendingUpdate> batch = new ArrayList<>();
+        for (Long userId : pending.keySet()) {
+            PendingUpdate update = pending.remove(userId);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(UPDATE, batch, batchSize, (ps, update) -> {
+                ps.setString(1, update.fullName());
+                ps.setString(2, update.role());
+                ps.setTimestamp(3, now);
+                ps.setLong(4, update.userId());
+                ps.setLong(5, update.tenantId());
+                ps.setString(6, update.fullName());
+                ps.setString(7, update.role());
+            });
+        } catch (DataAccessException e) {
+            logger.error("❌ SSO profile sync failed for {} user(s): {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        batch.forEach(update -> userDetailsCache.evict(update.tenantId(), update.email()));
+        logger.info("💾 Synced {} SSO profile(s)", batch.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
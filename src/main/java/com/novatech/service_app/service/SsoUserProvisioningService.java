@@ -0,0 +1,148 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.dto.ProvisionedUser;
+import com.novatech.service_app.dto.SsoProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds or creates the local user for an SSO login in a single statement.
+ * <p>
+ * The insert is keyed on the (tenant_id, email) unique constraint: concurrent first
+ * logins for the same email create exactly one row, and an existing user is returned
+ * from the same round trip without writing.
+ * <p>
+ * For existing users the stored name and role are compared with the IdP's claims;
+ * only a real difference is queued on {@link SsoProfileSyncWriter}, so unchanged
+ * logins stay read-only.
+ */
+@Service
+public class SsoUserProvisioningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SsoUserProvisioningService.class);
+
+    /**
+     * Password placeholder for SSO-only accounts (never a valid BCrypt hash).
+     */
+    private static final String SSO_PASSWORD_PLACEHOLDER = "SSO_LOGIN";
+
+    private static final String UPSERT = """
+            WITH inserted AS (
+                INSERT INTO users (full_name, email, password_hash, role, tenant_id, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (tenant_id, email) DO NOTHING
+                RETURNING id, tenant_id, email, full_name, role, TRUE AS created
+            )
+            SELECT id, tenant_id, email, full_name, role, created FROM inserted
+            UNION ALL
+            SELECT id, tenant_id, email, full_name, role, FALSE FROM users
+            WHERE tenant_id = ? AND email = ? AND NOT EXISTS (SELECT 1 FROM inserted)
+            """;
+
+    private static final RowMapper<ProvisionedUser> ROW_MAPPER = (rs, rowNum) -> new ProvisionedUser(
+            rs.getLong("id"),
+            rs.getLong("tenant_id"),
+            rs.getString("email"),
+            rs.getString("full_name"),
+            rs.getString("role"),
+            rs.getBoolean("created"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private SsoProfileSyncWriter profileSyncWriter;
+
+    /**
+     * IdP groups that map to ROLE_ADMIN (comma-separated). When empty, or when the IdP
+     * sends no group claim, roles are managed locally and never changed by SSO.
+     */
+    @Value("${app.sso.role-mapping.admin-groups:}")
+    private Set<String> adminGroups = Set.of();
+
+    /**
+     * Return the tenant's user for this email, creating it on first login and
+     * syncing name and role from the IdP claims otherwise.
+     */
+    @Transactional
+    public ProvisionedUser provision(Long tenantId, SsoProfile profile, String defaultName) {
+        if (tenantId == null) {
+            throw new IllegalStateException("SSO login requires a tenant context");
+        }
+
+        String mappedRole = mapRole(profile.groups());
+        String name = profile.name() != null ? profile.name() : defaultName;
+        String role = mappedRole != null ? mappedRole : "ROLE_USER";
+
+        List<ProvisionedUser> rows = upsert(tenantId, profile.email(), name, role);
+        if (rows.isEmpty()) {
+            // A concurrent login inserted the row after this statement's snapshot was
+            // taken; the conflict was detected but the row wasn't visible yet. Retry once.
+            rows = upsert(tenantId, profile.email(), name, role);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Could not provision SSO user: " + profile.email());
+        }
+
+        ProvisionedUser user = rows.get(0);
+        if (user.created()) {
+            logger.info("🆕 Created new SSO user: {} (Tenant: {})", profile.email(), tenantId);
+            dashboardStatsService.onUserCreated(tenantId);
+            return user;
+        }
+        return syncProfile(user, profile.name(), mappedRole);
+    }
+
+    // ============================================================
+    //                 JUST-IN-TIME ATTRIBUTE SYNC
+    // ============================================================
+
+    /**
+     * Compare claims with the stored row; queue an update only when something changed.
+     */
+    private ProvisionedUser syncProfile(ProvisionedUser stored, String claimedName, String mappedRole) {
+        String name = claimedName != null ? claimedName : stored.fullName();
+        String role = mappedRole != null && !"ROLE_SUPERADMIN".equals(stored.role()) ? mappedRole : stored.role();
+        if (name.equals(stored.fullName()) && role.equals(stored.role())) {
+            return stored;
+        }
+
+        logger.info("🔄 SSO profile changed for {} (Tenant: {}): name {} -> {}, role {} -> {}",
+                stored.email(), stored.tenantId(), stored.fullName(), name, stored.role(), role);
+        profileSyncWriter.enqueue(new SsoProfileSyncWriter.PendingUpdate(
+                stored.id(), stored.tenantId(), stored.email(), name, role));
+        // The new session already gets the IdP's values; the row follows with the next batch
+        return stored.withProfile(name, role);
+    }
+
+    /**
+     * ROLE_ADMIN if any group is a configured admin group, else ROLE_USER;
+     * null when there is nothing to map (no mapping configured or no group claim).
+     */
+    String mapRole(Set<String> groups) {
+        if (groups == null || adminGroups.isEmpty()) {
+            return null;
+        }
+        return groups.stream().anyMatch(adminGroups::contains) ? "ROLE_ADMIN" : "ROLE_USER";
+    }
+
+    private List<ProvisionedUser> upsert(Long tenantId, String email, String fullName, String role) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(UPSERT, ROW_MAPPER,
+                fullName, email, SSO_PASSWORD_PLACEHOLDER, role, tenantId, now, now,
+                tenantId, email);
+    }
+}
@@ -0,0 +1,45 @@
+package com.novatech.service_app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable superadmin credentials, resolved once at startup.
+ * <p>
+ * Uses {@code app.superadmin.password-hash} when supplied (a BCrypt hash), otherwise
+ * hashes {@code app.superadmin.password} once here. Login then costs a single BCrypt
+ * match instead of an encode plus a match per attempt.
+ */
+@Component
+public class SuperadminCredentials {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuperadminCredentials.class);
+
+    private final String username;
+    private final String passwordHash;
+
+    public SuperadminCredentials(@Value("${app.superadmin.username:superadmin@novatech.com}") String username,
+                                 @Value("${app.superadmin.password:admin123}") String password,
+                                 @Value("${app.superadmin.password-hash:}") String passwordHash,
+                                 PasswordEncoder passwordEncoder) {
+        this.username = username;
+        if (passwordHash != null && !passwordHash.isBlank()) {
+            this.passwordHash = passwordHash;
+            logger.info("🔐 Superadmin credentials loaded from pre-hashed password");
+        } else {
+            this.passwordHash = passwordEncoder.encode(password);
+            logger.info("🔐 Superadmin password hashed at startup");
+        }
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+}
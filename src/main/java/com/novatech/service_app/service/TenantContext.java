@@ -56,6 +56,14 @@ public class TenantContext {
         }
     }
 
+    /**
+     * Remove the tenant from the current thread only (request attribute is kept).
+     * Called by TenantFilter once the request leaves the filter chain.
+     */
+    public static void detach() {
+        CURRENT_TENANT.remove();
+    }
+
     /**
      * Check if we're in superadmin context (no tenant set).
      */
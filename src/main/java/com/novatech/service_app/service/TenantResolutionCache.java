@@ -0,0 +1,104 @@
+package com.novatech.service_app.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of subdomain -> tenant ID used by TenantFilter.
+ * Unknown subdomains are cached as misses so random hosts don't hit the DB either.
+ * Entries are invalidated by TenantService whenever a tenant is written, on every
+ * node through the {@link CacheInvalidationBus}.
+ */
+@Component
+public class TenantResolutionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantResolutionCache.class);
+
+    /**
+     * Marker stored for subdomains that have no tenant.
+     */
+    private static final Long MISS = -1L;
+
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${app.tenant-cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.TENANT_SUBDOMAIN,
+                event -> evict(event.key()), this::clear);
+    }
+
+    /**
+     * Resolve a subdomain to its tenant ID, calling the loader only on a cache miss.
+     */
+    public Optional<Long> resolve(String subdomain, Function<String, Optional<Long>> loader) {
+        Long cached = entries.get(subdomain);
+        if (cached == null) {
+            long generationAtLoad = generation.get();
+            Optional<Long> loaded = loader.apply(subdomain);
+            cached = loaded.orElse(MISS);
+            if (entries.size() >= maxSize && !entries.containsKey(subdomain)) {
+                evictOne();
+            }
+            // Skip caching if a tenant write raced with this load
+            if (generation.get() == generationAtLoad) {
+                entries.put(subdomain, cached);
+            }
+            logger.debug("📥 Tenant cache loaded: {} -> {}", subdomain, loaded.orElse(null));
+        }
+        return MISS.equals(cached) ? Optional.empty() : Optional.of(cached);
+    }
+
+    /**
+     * Drop a single subdomain (called on tenant create/update/delete).
+     * Inside a transaction the entry is dropped again after commit so a
+     * concurrent request can't re-cache the pre-commit state.
+     */
+    public void invalidate(String subdomain) {
+        if (subdomain == null) {
+            return;
+        }
+        CacheInvalidation.nowAndAfterCommit(() -> evict(subdomain));
+        invalidationBus.publish(CacheInvalidationEvent.Type.TENANT_SUBDOMAIN, null, subdomain);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(String subdomain) {
+        generation.incrementAndGet();
+        entries.remove(subdomain);
+        logger.debug("🧹 Tenant cache invalidated for subdomain: {}", subdomain);
+    }
+
+    private void evictOne() {
+        Iterator<String> it = entries.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -28,6 +28,12 @@ public class TenantService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TenantResolutionCache tenantResolutionCache;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
     /**
      * Create a new tenant (called by Superadmin).
      */
@@ -46,7 +52,10 @@ public class TenantService {
         // tenant.setPasswordHash(passwordEncoder.encode(password));
         tenant.setSubdomain(subdomain);
 
-        return tenantRepository.save(tenant);
+        Tenant saved = tenantRepository.save(tenant);
+        tenantResolutionCache.invalidate(saved.getSubdomain());
+        dashboardStatsService.onTenantCreated(saved);
+        return saved;
     }
 
     /**
@@ -70,6 +79,14 @@ public class TenantService {
         return tenantRepository.findBySubdomain(subdomain);
     }
 
+    /**
+     * Resolve subdomain to tenant ID through the in-memory cache (used by TenantFilter).
+     */
+    public Optional<Long> resolveTenantId(String subdomain) {
+        return tenantResolutionCache.resolve(subdomain,
+                key -> tenantRepository.findBySubdomain(key).map(Tenant::getId));
+    }
+
     /**
      * Get tenant by email (used for tenant-admin login).
      */
@@ -84,18 +101,27 @@ public class TenantService {
         Tenant tenant = tenantRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Tenant not found"));
 
+        String previousSubdomain = tenant.getSubdomain();
+
         tenant.setName(name);
         tenant.setEmail(email);
         tenant.setSubdomain(subdomain);
 
-        return tenantRepository.save(tenant);
+        Tenant saved = tenantRepository.save(tenant);
+        tenantResolutionCache.invalidate(previousSubdomain);
+        tenantResolutionCache.invalidate(saved.getSubdomain());
+        dashboardStatsService.onTenantUpdated(saved);
+        return saved;
     }
 
     /**
      * Delete tenant.
      */
     public void deleteTenant(Long id) {
+        Optional<Tenant> tenant = tenantRepository.findById(id);
         tenantRepository.deleteById(id);
+        tenant.ifPresent(t -> tenantResolutionCache.invalidate(t.getSubdomain()));
+        dashboardStatsService.onTenantDeleted(id);
     }
 
     /**
@@ -114,6 +140,7 @@ public class TenantService {
         tenant.setEmail(request.getEmail()); // Tenant contact email
         tenant.setSubdomain(request.getSubdomain());
         tenant = tenantRepository.save(tenant);
+        tenantResolutionCache.invalidate(tenant.getSubdomain());
 
         // 3. Create Admin User for this Tenant
         User adminUser = new User();
@@ -125,6 +152,8 @@ public class TenantService {
 
         userRepository.save(adminUser);
 
+        dashboardStatsService.onTenantCreated(tenant);
+        dashboardStatsService.onUserCreated(tenant.getId());
         return tenant;
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.novatech.service_app.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of CustomUserDetails keyed by (tenantId, email), used by
+ * UserService.loadUserByUsername so repeated logins skip the users query.
+ * <p>
+ * Only found users are cached. Entries expire after a short TTL and are evicted
+ * explicitly (on every node) when a user's role, name, password or existence changes.
+ * CustomUserDetails is immutable, so sharing one instance between logins is safe.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private record Key(Long tenantId, String email) {}
+
+    private record Entry(CustomUserDetails details, long expiresAtNanos) {}
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${app.user-details-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.user-details-cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @PostConstruct
+    void registerInvalidation() {
+        invalidationBus.register(CacheInvalidationEvent.Type.USER_DETAILS,
+                event -> remove(new Key(event.tenantId(), event.key())), this::clear);
+    }
+
+    /**
+     * Return the cached details, or load them (the loader may throw UsernameNotFoundException).
+     */
+    public CustomUserDetails get(Long tenantId, String email, Supplier<CustomUserDetails> loader) {
+        Key key = new Key(tenantId, email);
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            hits.increment();
+            return entry.details();
+        }
+
+        misses.increment();
+        long generationAtLoad = generation.get();
+        CustomUserDetails details = loader.get();
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evictOne();
+        }
+        // Skip caching if a user write raced with this load
+        if (generation.get() == generationAtLoad) {
+            entries.put(key, new Entry(details, now + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        return details;
+    }
+
+    /**
+     * Drop one user's entry, now and again after commit.
+     */
+    public void evict(Long tenantId, String email) {
+        if (email == null) {
+            return;
+        }
+        Key key = new Key(tenantId, email);
+        CacheInvalidation.nowAndAfterCommit(() -> remove(key));
+        invalidationBus.publish(CacheInvalidationEvent.Type.USER_DETAILS, tenantId, email);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private void remove(Key key) {
+        generation.incrementAndGet();
+        if (entries.remove(key) != null) {
+            evictions.increment();
+            logger.debug("🧹 User details evicted: {} (Tenant: {})", key.email(), key.tenantId());
+        }
+    }
+
+    private void evictOne() {
+        Iterator<Key> it = entries.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
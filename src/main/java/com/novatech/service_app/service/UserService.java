@@ -1,31 +1,40 @@
 package com.novatech.service_app.service;
 
 import com.novatech.service_app.service.TenantContext; // ⬅️ ADD THIS LINEimport com.novatech.service_app.entity.Tenant;
+import com.novatech.service_app.dto.UserPage;
+import com.novatech.service_app.dto.UserPageRequest;
+import com.novatech.service_app.dto.UserSummary;
 import com.novatech.service_app.entity.User;
 import com.novatech.service_app.entity.Tenant;
 import com.novatech.service_app.repository.TenantRepository;
 import com.novatech.service_app.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * ✅ [SIMPLIFIED] Multi-tenant authentication service
  * Handles: Superadmin, and (Tenant-admin + End-user) from the USERS table
  */
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
@@ -33,11 +42,19 @@ public class UserService implements UserDetailsService {
     private final TenantRepository tenantRepository;
     private final PasswordEncoder passwordEncoder;
 
-    @Value("${app.superadmin.username:superadmin@novatech.com}")
-    private String superadminUsername;
+    private static final int EXPORT_FLUSH_EVERY = 500;
 
-    @Value("${app.superadmin.password:admin123}")
-    private String superadminPassword;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private SuperadminCredentials superadminCredentials;
 
     @Autowired
     public UserService(UserRepository userRepository,
@@ -52,8 +69,11 @@ public class UserService implements UserDetailsService {
     // SPRING SECURITY AUTHENTICATION
     // ======================================================
 
+    /**
+     * Not transactional: cache hits must not borrow a DB connection. A miss runs a single
+     * query outside any transaction; the loader only reads basic columns of the row.
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         logger.debug("🔐 loadUserByUsername called for: {}", email);
         logger.debug("🔍 Current TenantContext: {}", TenantContext.getTenantId());
@@ -61,12 +81,12 @@ public class UserService implements UserDetailsService {
         // ============================================================
         // CASE 1: SUPERADMIN LOGIN (no tenant context, at localhost)
         // ============================================================
-        if (TenantContext.isSuperAdminContext() && email.equals(superadminUsername)) {
+        if (TenantContext.isSuperAdminContext() && email.equals(superadminCredentials.getUsername())) {
             logger.info("✅ Superadmin authentication for: {}", email);
 
             return new CustomUserDetails(
                     email,
-                    passwordEncoder.encode(superadminPassword), // Hardcoded password
+                    superadminCredentials.getPasswordHash(), // Hashed once at startup
                     "ROLE_SUPERADMIN",
                     0L,
                     null,
@@ -88,6 +108,10 @@ public class UserService implements UserDetailsService {
             throw new UsernameNotFoundException("User not found: " + email);
         }
 
+        return userDetailsCache.get(tenantId, email, () -> loadTenantUser(email, tenantId));
+    }
+
+    private CustomUserDetails loadTenantUser(String email, Long tenantId) {
         Optional<User> userOpt = userRepository.findByEmailAndTenantId(email, tenantId);
 
         if (userOpt.isPresent()) {
@@ -119,6 +143,23 @@ public class UserService implements UserDetailsService {
         throw new UsernameNotFoundException("User not found: " + email);
     }
 
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the stored
+     * hash uses a different BCrypt cost than configured; stores the new hash.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof CustomUserDetails details) || "SUPERADMIN".equals(details.getUserType())) {
+            // Superadmin credentials come from config, not the users table
+            return user;
+        }
+        userRepository.updatePasswordHash(details.getUserId(), newPassword);
+        userDetailsCache.evict(details.getTenantId(), details.getUsername());
+        logger.info("🔁 Password rehashed with current work factor for user ID: {}", details.getUserId());
+        return details.withPasswordHash(newPassword);
+    }
+
     // ======================================================
     // USER MANAGEMENT (Tenant-Aware)
     // [ALL METHODS BELOW ARE UNCHANGED]
@@ -150,6 +191,46 @@ public class UserService implements UserDetailsService {
         return userRepository.findAllByOrderByIdAsc();
     }
 
+    /**
+     * One keyset page of user summaries for the admin dashboard (tenant-scoped,
+     * or all users for the superadmin). Fetches one extra row to detect a next page.
+     */
+    @Transactional(readOnly = true)
+    public UserPage getUserPage(UserPageRequest request) {
+        Long tenantId = TenantContext.getTenantId();
+        List<UserSummary> rows = userRepository.findUserSummaries(tenantId, request, request.size() + 1);
+
+        if (rows.size() <= request.size()) {
+            return new UserPage(rows, null);
+        }
+        List<UserSummary> page = rows.subList(0, request.size());
+        return new UserPage(List.copyOf(page), request.cursorAfter(page.get(page.size() - 1)));
+    }
+
+    /**
+     * Write all users of a tenant to {@code out} as JSON Lines (one object per line),
+     * streaming from a DB cursor so memory use does not grow with the tenant size.
+     * Returns the number of users written.
+     */
+    @Transactional(readOnly = true)
+    public long exportTenantUsers(Long tenantId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserSummary.class);
+        long count = 0;
+        try (Stream<UserSummary> users = userRepository.streamSummariesByTenantId(tenantId)) {
+            Iterator<UserSummary> it = users.iterator();
+            while (it.hasNext()) {
+                out.write(writer.writeValueAsBytes(it.next()));
+                out.write('\n');
+                if (++count % EXPORT_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        logger.info("📤 Exported {} users of tenant {}", count, tenantId);
+        return count;
+    }
+
     @Transactional(readOnly = true)
     public boolean emailExists(String email) {
         Long tenantId = TenantContext.getTenantId();
@@ -189,7 +270,9 @@ public class UserService implements UserDetailsService {
             logger.info("✅ User registered under tenant: {}", tenant.getName());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        dashboardStatsService.onUserCreated(tenantId);
+        return saved;
     }
 
     @Transactional
@@ -214,6 +297,7 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.save(user);
+        dashboardStatsService.onUserCreated(tenantIdOf(user));
     }
 
     @Transactional
@@ -246,6 +330,7 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.save(targetUser);
+        userDetailsCache.evict(tenantIdOf(targetUser), targetUser.getEmail());
     }
 
     @Transactional
@@ -267,12 +352,18 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.deleteById(id);
+        userDetailsCache.evict(tenantIdOf(targetUser), targetUser.getEmail());
+        dashboardStatsService.onUserDeleted(tenantIdOf(targetUser));
     }
 
     // ======================================================
     // UTILITY METHODS
     // ======================================================
 
+    private static Long tenantIdOf(User user) {
+        return user.getTenant() != null ? user.getTenant().getId() : null;
+    }
+
     @Transactional(readOnly = true)
     public long getUserCount() {
         Long tenantId = TenantContext.getTenantId();
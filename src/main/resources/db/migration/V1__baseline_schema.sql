@@ -0,0 +1,46 @@
+-- =============================================================================
+-- V1: Baseline schema (tenants, users, sso_configurations)
+-- =============================================================================
+-- Matches what ddl-auto=update produced before migrations were introduced.
+-- IF NOT EXISTS keeps it a no-op on existing databases (baselined at version 0).
+
+CREATE TABLE IF NOT EXISTS tenants (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    subdomain  VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name     VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    tenant_id     BIGINT REFERENCES tenants (id),
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS sso_configurations (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sso_type               VARCHAR(255) NOT NULL,
+    tenant_id              BIGINT REFERENCES tenants (id),
+    provider_name          VARCHAR(255),
+    client_id              VARCHAR(500),
+    client_secret          VARCHAR(1000),
+    authorization_endpoint VARCHAR(1000),
+    token_endpoint         VARCHAR(1000),
+    userinfo_endpoint      VARCHAR(1000),
+    redirect_uri           VARCHAR(500),
+    certificate_path       VARCHAR(500),
+    domain                 VARCHAR(500),
+    issuer                 VARCHAR(500),
+    scopes                 VARCHAR(500),
+    enabled                BOOLEAN NOT NULL,
+    created_at             TIMESTAMP(6),
+    updated_at             TIMESTAMP(6),
+    CONSTRAINT uk_sso_config_tenant_type UNIQUE (tenant_id, sso_type)
+);
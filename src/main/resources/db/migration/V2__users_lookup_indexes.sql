@@ -0,0 +1,19 @@
+-- =============================================================================
+-- V2: Indexes for user lookups
+-- =============================================================================
+-- Fails if a tenant already has duplicate emails; resolve those rows first.
+
+-- Login and signup: findByEmailAndTenantId / existsByEmailAndTenantId.
+-- Also serves findByTenantId / countByTenantId through its tenant_id prefix.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_users_tenant_email') THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_tenant_email UNIQUE (tenant_id, email);
+    END IF;
+END $$;
+
+-- Admin user list and export: WHERE tenant_id = ? ORDER BY id (keyset pages)
+CREATE INDEX IF NOT EXISTS idx_users_tenant_id_id ON users (tenant_id, id);
+
+-- Lookups by email without a tenant (superadmin context, SSO provisioning)
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
@@ -0,0 +1,37 @@
+-- =============================================================================
+-- V3: Per-tenant SSO configurations
+-- =============================================================================
+-- Replaces the startup runner that upgraded sso_configurations in place.
+-- The table used to allow one config per SSO type system-wide (unique sso_type).
+
+ALTER TABLE sso_configurations ADD COLUMN IF NOT EXISTS tenant_id BIGINT REFERENCES tenants (id);
+
+-- Drop the old single-column unique key on sso_type (its name was generated by Hibernate)
+DO $$
+DECLARE c record;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_class rel ON rel.oid = con.conrelid
+        JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attnum = ANY (con.conkey)
+        WHERE rel.relname = 'sso_configurations'
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'sso_type'
+    LOOP
+        EXECUTE format('ALTER TABLE sso_configurations DROP CONSTRAINT %I', c.conname);
+    END LOOP;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_sso_config_tenant_type') THEN
+        ALTER TABLE sso_configurations
+            ADD CONSTRAINT uk_sso_config_tenant_type UNIQUE (tenant_id, sso_type);
+    END IF;
+END $$;
+
+-- Configs created before tenants existed belong to the only tenant, if there is exactly one.
+-- Otherwise they stay unassigned and each tenant admin re-creates their own.
+UPDATE sso_configurations
+SET tenant_id = (SELECT id FROM tenants)
+WHERE tenant_id IS NULL
+  AND (SELECT count(*) FROM tenants) = 1;
@@ -0,0 +1,13 @@
+-- =============================================================================
+-- V5: Shared SAML replay protection (app.saml.replay.store=database)
+-- =============================================================================
+-- One row per accepted assertion: SHA-256 of (issuer, assertion ID), kept until
+-- the assertion's NotOnOrAfter. Expired rows are purged by SamlReplayCache.
+
+CREATE TABLE IF NOT EXISTS saml_assertion_replay (
+    assertion_key CHAR(64)                 NOT NULL,
+    expires_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT saml_assertion_replay_pk PRIMARY KEY (assertion_key)
+);
+
+CREATE INDEX IF NOT EXISTS saml_assertion_replay_expires_idx ON saml_assertion_replay (expires_at);
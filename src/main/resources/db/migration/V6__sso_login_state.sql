@@ -0,0 +1,16 @@
+-- =============================================================================
+-- V6: Pending SSO logins shared between nodes (app.sso.state.store=database)
+-- =============================================================================
+-- One row per authorization request: the random state/nonce sent to the IdP.
+-- Deleted when the callback consumes it; expired rows are purged by SsoLoginStateStore.
+
+CREATE TABLE IF NOT EXISTS sso_login_state (
+    state      VARCHAR(64)              NOT NULL,
+    nonce      VARCHAR(64)              NOT NULL,
+    tenant_id  BIGINT,
+    sso_type   VARCHAR(16)              NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT sso_login_state_pk PRIMARY KEY (state)
+);
+
+CREATE INDEX IF NOT EXISTS sso_login_state_expires_idx ON sso_login_state (expires_at);
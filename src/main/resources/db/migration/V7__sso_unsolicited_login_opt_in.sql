@@ -0,0 +1,8 @@
+-- =============================================================================
+-- V7: Per-tenant opt-in for JWT logins without state or nonce
+-- =============================================================================
+-- Such ID tokens are not tied to a login started by the browser presenting them,
+-- so they are rejected unless the tenant admin allows them (IdP-initiated/legacy).
+
+ALTER TABLE sso_configurations
+    ADD COLUMN IF NOT EXISTS allow_unsolicited_login BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,10 @@
+-- =============================================================================
+-- V8: Keyset indexes for the admin user list sorted by name or email
+-- =============================================================================
+-- Pages are "WHERE tenant_id = ? AND (col, id) > (?, ?) ORDER BY col, id LIMIT n":
+-- with (tenant_id, col, id) each page is an index range scan starting at the cursor
+-- instead of a sort of the whole tenant. Sorting by id uses idx_users_tenant_id_id (V2).
+
+CREATE INDEX IF NOT EXISTS idx_users_tenant_full_name_id ON users (tenant_id, full_name, id);
+
+CREATE INDEX IF NOT EXISTS idx_users_tenant_email_id ON users (tenant_id, email, id);
@@ -0,0 +1,21 @@
+-- =============================================================================
+-- V9: Unique email among users without a tenant
+-- =============================================================================
+-- uk_users_tenant_email (V2) treats NULL tenant_ids as distinct, so it never stopped
+-- two tenant-less users (superadmin-created, registerUser outside a tenant) from
+-- sharing an email. A partial unique index covers those rows; it also makes the
+-- tenant-less lookups by email (idx_users_email) return at most one row.
+-- Fails if such duplicates already exist; resolve those rows first.
+
+DO $$
+DECLARE duplicates bigint;
+BEGIN
+    SELECT count(*) INTO duplicates
+    FROM (SELECT email FROM users WHERE tenant_id IS NULL GROUP BY email HAVING count(*) > 1) d;
+    IF duplicates > 0 THEN
+        RAISE EXCEPTION 'users: % email(s) are used by more than one user without a tenant; '
+            'merge or delete those rows before migrating', duplicates;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_without_tenant ON users (email) WHERE tenant_id IS NULL;
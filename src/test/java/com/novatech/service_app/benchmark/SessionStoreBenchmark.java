@@ -0,0 +1,220 @@
+package com.novatech.service_app.benchmark;
+
+import com.novatech.service_app.config.SessionConfig;
+import com.novatech.service_app.service.CustomUserDetails;
+import com.novatech.service_app.service.SessionPrincipal;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.web.http.HeaderHttpSessionIdResolver;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shared session store costs: serialized bytes per authenticated session (previous
+ * layout vs SessionPrincipal) and SQL statements per request, with and without
+ * coalesced last-access writes. Needs a real PostgreSQL; not part of the normal test run.
+ * <pre>
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/novatech_bench \
+ * BENCHMARK_DATABASE_USER=postgres BENCHMARK_DATABASE_PASSWORD=admin \
+ * mvn test -Dtest=SessionStoreBenchmark
+ * </pre>
+ * Runs in a throwaway schema that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATABASE_URL", matches = ".+")
+class SessionStoreBenchmark {
+
+    private static final String SCHEMA = "bench_session_store";
+    private static final String CONTEXT_ATTRIBUTE = "SPRING_SECURITY_CONTEXT";
+    private static final int REQUESTS = 1_000;
+    private static final String ROWS_WRITTEN = "rows written";
+
+    private final Map<String, AtomicLong> statements = new ConcurrentHashMap<>();
+
+    @Test
+    void sessionSizeAndStatementsPerRequest() throws Exception {
+        Connection raw = DriverManager.getConnection(System.getenv("BENCHMARK_DATABASE_URL"),
+                System.getenv("BENCHMARK_DATABASE_USER"), System.getenv("BENCHMARK_DATABASE_PASSWORD"));
+        try (raw) {
+            try (Statement st = raw.createStatement()) {
+                st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                st.execute("CREATE SCHEMA " + SCHEMA);
+                st.execute("SET search_path TO " + SCHEMA);
+                st.execute(new ClassPathResource("db/migration/V4__spring_session_tables.sql")
+                        .getContentAsString(StandardCharsets.UTF_8));
+            }
+            try {
+                SingleConnectionDataSource dataSource = new SingleConnectionDataSource(counting(raw), true);
+                JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+                JdbcIndexedSessionRepository repository = new JdbcIndexedSessionRepository(jdbc,
+                        new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+
+                long legacyBytes = sessionBytes(jdbc, legacySession(repository));
+                long compactBytes = sessionBytes(jdbc, compactSession(repository));
+                System.out.printf("Bytes per session: previous layout %,d, SessionPrincipal %,d (%.0f%% smaller)%n",
+                        legacyBytes, compactBytes, 100.0 * (legacyBytes - compactBytes) / legacyBytes);
+
+                double[] perRequest = measureRequests(repository, compactSession(repository));
+                System.out.printf("Per request, write on every access: %.2f SELECT, %.2f UPDATE, %.2f rows written%n",
+                        perRequest[0], perRequest[1], perRequest[2]);
+
+                repository.setUpdateSessionQuery(SessionConfig.coalescedUpdateQuery(60_000));
+                double[] coalesced = measureRequests(repository, compactSession(repository));
+                System.out.printf("Per request, coalesced last-access writes: %.2f SELECT, %.2f UPDATE, %.2f rows written%n",
+                        coalesced[0], coalesced[1], coalesced[2]);
+
+                assertTrue(compactBytes < legacyBytes, "compact principal should serialize smaller");
+                assertEquals(1.0, perRequest[0], 0.01, "one session read per request");
+                assertTrue(coalesced[2] < perRequest[2], "coalescing should skip last-access row writes");
+            } finally {
+                try (Statement st = raw.createStatement()) {
+                    st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                }
+            }
+        }
+    }
+
+    /**
+     * Previous form-login layout: full CustomUserDetails principal plus four session attributes.
+     */
+    private static String legacySession(JdbcIndexedSessionRepository repository) {
+        CustomUserDetails details = new CustomUserDetails("jane.doe@acme.example.com",
+                "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z.Vn3ZnL6KQd0SlXLJ.XoEYm", "ROLE_ADMIN",
+                42L, 7L, "TENANT_ADMIN", "Jane Doe");
+        return store(repository, session -> {
+            session.setAttribute(CONTEXT_ATTRIBUTE, new SecurityContextImpl(
+                    UsernamePasswordAuthenticationToken.authenticated(details, null, details.getAuthorities())));
+            session.setAttribute("userType", details.getUserType());
+            session.setAttribute("userId", details.getUserId());
+            session.setAttribute("tenantId", details.getTenantId());
+            session.setAttribute("displayName", details.getDisplayName());
+        });
+    }
+
+    private static String compactSession(JdbcIndexedSessionRepository repository) {
+        SessionPrincipal principal = new SessionPrincipal(42L, 7L, "jane.doe@acme.example.com",
+                "ROLE_ADMIN", "TENANT_ADMIN");
+        return store(repository, session ->
+                session.setAttribute(CONTEXT_ATTRIBUTE, new SecurityContextImpl(principal.toAuthentication(null))));
+    }
+
+    private static <S extends Session> String store(SessionRepository<S> repository, Consumer<Session> attributes) {
+        S session = repository.createSession();
+        attributes.accept(session);
+        repository.save(session);
+        return session.getId();
+    }
+
+    private static long sessionBytes(JdbcTemplate jdbc, String sessionId) {
+        Long bytes = jdbc.queryForObject("""
+                SELECT SUM(OCTET_LENGTH(A.ATTRIBUTE_BYTES)) FROM SPRING_SESSION_ATTRIBUTES A
+                JOIN SPRING_SESSION S ON S.PRIMARY_ID = A.SESSION_PRIMARY_ID
+                WHERE S.SESSION_ID = ?""", Long.class, sessionId);
+        return bytes != null ? bytes : 0;
+    }
+
+    /**
+     * Requests through SessionRepositoryFilter; the chain reads the security context
+     * several times, as the security filters, controller and view do.
+     */
+    private double[] measureRequests(JdbcIndexedSessionRepository repository, String sessionId) throws Exception {
+        SessionRepositoryFilter<?> filter = new SessionRepositoryFilter<>(repository);
+        filter.setHttpSessionIdResolver(HeaderHttpSessionIdResolver.xAuthToken());
+        statements.clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/home");
+            request.addHeader("X-Auth-Token", sessionId);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) {
+                    for (int read = 0; read < 3; read++) {
+                        assertTrue(req.getSession(false).getAttribute(CONTEXT_ATTRIBUTE) != null);
+                    }
+                }
+            }));
+        }
+        return new double[]{count("SELECT") / (double) REQUESTS, count("UPDATE") / (double) REQUESTS,
+                count(ROWS_WRITTEN) / (double) REQUESTS};
+    }
+
+    private long count(String verb) {
+        AtomicLong counter = statements.get(verb);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Counts prepared statements by verb, and session rows actually written by UPDATEs
+     * (a coalesced update still runs but matches no row).
+     */
+    private Connection counting(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = invoke(method, target, args);
+            if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                String verb = sql.strip().split("\\s+", 2)[0].toUpperCase();
+                counter(verb).incrementAndGet();
+                if (verb.equals("UPDATE") && sql.contains("LAST_ACCESS_TIME")) {
+                    PreparedStatement statement = (PreparedStatement) result;
+                    return proxy(PreparedStatement.class, statement, (psMethod, psArgs) -> {
+                        Object updated = invoke(psMethod, statement, psArgs);
+                        if (psMethod.getName().equals("executeUpdate")) {
+                            counter(ROWS_WRITTEN).addAndGet((Integer) updated);
+                        }
+                        return updated;
+                    });
+                }
+            }
+            return result;
+        });
+    }
+
+    private AtomicLong counter(String name) {
+        return statements.computeIfAbsent(name, n -> new AtomicLong());
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(SessionStoreBenchmark.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args)));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
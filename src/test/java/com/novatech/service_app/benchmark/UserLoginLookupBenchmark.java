@@ -0,0 +1,133 @@
+package com.novatech.service_app.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login lookup latency (findByEmailAndTenantId) on 1M users, before and after the
+ * V2 migration indexes. Needs a real PostgreSQL; not part of the normal test run.
+ * <pre>
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/novatech_bench \
+ * BENCHMARK_DATABASE_USER=postgres BENCHMARK_DATABASE_PASSWORD=admin \
+ * mvn test -Dtest=UserLoginLookupBenchmark
+ * </pre>
+ * Runs in a throwaway schema that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATABASE_URL", matches = ".+")
+class UserLoginLookupBenchmark {
+
+    private static final String SCHEMA = "bench_login_lookup";
+    private static final int TENANTS = 1_000;
+    private static final int USERS = 1_000_000;
+    private static final int SEQ_SCAN_SAMPLES = 200;
+    private static final int INDEXED_SAMPLES = 20_000;
+
+    private static final String LOOKUP = """
+            SELECT id, full_name, email, password_hash, role, tenant_id
+            FROM users WHERE email = ? AND tenant_id = ?""";
+
+    @Test
+    void loginLookupAtOneMillionUsers() throws Exception {
+        try (Connection conn = DriverManager.getConnection(System.getenv("BENCHMARK_DATABASE_URL"),
+                System.getenv("BENCHMARK_DATABASE_USER"), System.getenv("BENCHMARK_DATABASE_PASSWORD"))) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                st.execute("CREATE SCHEMA " + SCHEMA);
+                st.execute("SET search_path TO " + SCHEMA);
+                st.execute(migration("V1__baseline_schema.sql"));
+                seed(st);
+            }
+            try {
+                double[] before = measure(conn, SEQ_SCAN_SAMPLES);
+                report("without indexes", before, plan(conn));
+
+                try (Statement st = conn.createStatement()) {
+                    st.execute(migration("V2__users_lookup_indexes.sql"));
+                    st.execute("ANALYZE users");
+                }
+                double[] after = measure(conn, INDEXED_SAMPLES);
+                report("with V2 indexes", after, plan(conn));
+
+                assertTrue(percentile(after, 50) < percentile(before, 50),
+                        "indexed lookups should be faster than sequential scans");
+            } finally {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                }
+            }
+        }
+    }
+
+    private static void seed(Statement st) throws Exception {
+        long start = System.nanoTime();
+        st.execute("""
+                INSERT INTO tenants (name, email, subdomain, created_at, updated_at)
+                SELECT 'Tenant ' || g, 'admin' || g || '@tenant.test', 'tenant' || g, now(), now()
+                FROM generate_series(1, %d) g""".formatted(TENANTS));
+        st.execute("""
+                INSERT INTO users (full_name, email, password_hash, role, tenant_id, created_at, updated_at)
+                SELECT 'User ' || g, 'user' || g || '@example.com', '$2a$10$benchmark', 'ROLE_USER',
+                       (g %% %d) + 1, now(), now()
+                FROM generate_series(1, %d) g""".formatted(TENANTS, USERS));
+        st.execute("ANALYZE");
+        System.out.printf("Seeded %,d users across %,d tenants in %d ms%n",
+                USERS, TENANTS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static double[] measure(Connection conn, int samples) throws Exception {
+        double[] micros = new double[samples];
+        try (PreparedStatement ps = conn.prepareStatement(LOOKUP)) {
+            for (int i = 0; i < samples; i++) {
+                int user = ThreadLocalRandom.current().nextInt(1, USERS + 1);
+                ps.setString(1, "user" + user + "@example.com");
+                ps.setLong(2, (user % TENANTS) + 1);
+                long start = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next(), "seeded user must be found");
+                }
+                micros[i] = (System.nanoTime() - start) / 1_000.0;
+            }
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private static String plan(Connection conn) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + LOOKUP)) {
+            ps.setString(1, "user42@example.com");
+            ps.setLong(2, 43);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append("    ").append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void report(String label, double[] sorted, String plan) {
+        System.out.printf("Login lookup %s (%,d samples): p50=%.0f us, p95=%.0f us, p99=%.0f us%n%s",
+                label, sorted.length, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), plan);
+    }
+
+    private static double percentile(double[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+
+    private static String migration(String name) throws Exception {
+        return new ClassPathResource("db/migration/" + name).getContentAsString(StandardCharsets.UTF_8);
+    }
+}
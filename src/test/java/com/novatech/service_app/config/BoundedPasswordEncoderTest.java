@@ -0,0 +1,86 @@
+package com.novatech.service_app.config;
+
+import com.novatech.service_app.config.BoundedPasswordEncoder.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, executor, 5000);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void encodesAndMatchesOnTheHashingPool() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void flagsHashesWithADifferentCostForRehash() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertFalse(encoder.upgradeEncoding("SSO_LOGIN"));
+    }
+
+    @Test
+    void rejectsWorkWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release)); // occupies the only worker
+        executor.execute(() -> { });                   // fills the queue
+
+        try {
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("secret"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void abandonedHashesAreSkippedOnceTheyReachAWorker() throws Exception {
+        BoundedPasswordEncoder impatient = new BoundedPasswordEncoder(4, executor, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release)); // occupies the only worker
+
+        CompletableFuture<String> queued = impatient.encodeAsync("secret");
+        try {
+            // The caller gives up (past the 50 ms deadline) while the hash is still queued
+            assertThrows(TimeoutException.class, () -> queued.get(100, TimeUnit.MILLISECONDS));
+        } finally {
+            release.countDown();
+        }
+
+        ExecutionException skipped = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingBusyException.class, skipped.getCause());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.novatech.service_app.config;
+
+import com.novatech.service_app.service.TenantContext;
+import com.novatech.service_app.service.TenantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies tenant and security context isolation when requests run on virtual threads.
+ */
+class TenantFilterTest {
+
+    private static final int REQUESTS = 2_000;
+
+    @Test
+    void tenantAndSecurityContextStayIsolatedOnVirtualThreads() throws Exception {
+        TenantService tenantService = mock(TenantService.class);
+        when(tenantService.resolveTenantId(anyString())).thenAnswer(inv ->
+                Optional.of(Long.parseLong(inv.<String>getArgument(0).substring("t".length()))));
+
+        TenantFilter filter = new TenantFilter();
+        ReflectionTestUtils.setField(filter, "tenantService", tenantService);
+
+        // All requests are inside the chain at the same time before any of them returns
+        CountDownLatch allInside = new CountDownLatch(REQUESTS);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 1; i <= REQUESTS; i++) {
+                long tenantId = i;
+                results.add(executor.submit(() -> {
+                    MockHttpServletRequest request = new MockHttpServletRequest();
+                    request.setServerName("t" + tenantId + ".pratiktech.cloud");
+
+                    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(new UsernamePasswordAuthenticationToken("user" + tenantId, null));
+                        SecurityContextHolder.setContext(context);
+
+                        allInside.countDown();
+                        try {
+                            allInside.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        assertEquals(tenantId, TenantContext.getTenantId());
+                        assertEquals("user" + tenantId,
+                                SecurityContextHolder.getContext().getAuthentication().getName());
+                        SecurityContextHolder.clearContext();
+                    });
+
+                    // Thread-local is detached once the chain returns; request attribute survives
+                    assertEquals(tenantId, request.getAttribute("TENANT_ID"));
+                    assertNull(TenantContext.getTenantId());
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
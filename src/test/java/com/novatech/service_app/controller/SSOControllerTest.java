@@ -0,0 +1,157 @@
+package com.novatech.service_app.controller;
+
+import com.novatech.service_app.dto.ProvisionedUser;
+import com.novatech.service_app.entity.SsoConfiguration;
+import com.novatech.service_app.service.OidcService;
+import com.novatech.service_app.service.SSOService;
+import com.novatech.service_app.service.SsoLoginStateStore;
+import com.novatech.service_app.service.SsoUserProvisioningService;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.ModelAndView;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SSOControllerTest {
+
+    private static final String HOME = "redirect:/home";
+    private static final String REJECTED = "redirect:/login?error=invalid_state";
+
+    private SSOController controller;
+    private SSOService ssoService;
+    private SsoLoginStateStore loginStateStore;
+    private SsoConfiguration jwtConfig;
+    private OidcService oidcService;
+
+    @BeforeEach
+    void setUp() {
+        loginStateStore = new SsoLoginStateStore();
+        ReflectionTestUtils.setField(loginStateStore, "store", "memory");
+        ReflectionTestUtils.setField(loginStateStore, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(loginStateStore, "maxEntries", 100);
+
+        jwtConfig = new SsoConfiguration("JWT", "Test IdP", true);
+        ssoService = mock(SSOService.class);
+        when(ssoService.getSsoConfig("JWT")).thenReturn(Optional.of(jwtConfig));
+
+        SsoUserProvisioningService provisioning = mock(SsoUserProvisioningService.class);
+        when(provisioning.provision(isNull(), any(), anyString())).thenReturn(
+                new ProvisionedUser(1L, null, "jane@example.com", "Jane", "ROLE_USER", false));
+
+        oidcService = mock(OidcService.class);
+
+        controller = new SSOController();
+        ReflectionTestUtils.setField(controller, "oidcService", oidcService);
+        ReflectionTestUtils.setField(controller, "oidcCallbackTimeoutMs", 20_000L);
+        ReflectionTestUtils.setField(controller, "ssoService", ssoService);
+        ReflectionTestUtils.setField(controller, "loginStateStore", loginStateStore);
+        ReflectionTestUtils.setField(controller, "ssoUserProvisioningService", provisioning);
+        ReflectionTestUtils.setField(controller, "homePageUrl", "/home");
+        ReflectionTestUtils.setField(controller, "loginPageUrl", "/login");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void idTokenIsAcceptedForTheLoginThisBrowserStarted() throws Exception {
+        SsoLoginStateStore.PendingLogin login = loginStateStore.issue(null, "JWT");
+
+        // IdP does not echo state: the pending login is the one in this browser's cookie
+        assertEquals(HOME, jwtCallback(token(login.nonce()), null, login.state()));
+        // ...and it is used up
+        assertEquals(REJECTED, jwtCallback(token(login.nonce()), null, login.state()));
+    }
+
+    @Test
+    void capturedIdTokenIsRejectedInAnotherBrowser() throws Exception {
+        SsoLoginStateStore.PendingLogin victim = loginStateStore.issue(null, "JWT");
+        SsoLoginStateStore.PendingLogin attacker = loginStateStore.issue(null, "JWT");
+
+        assertEquals(REJECTED, jwtCallback(token(victim.nonce()), null, attacker.state()));
+        assertEquals(REJECTED, jwtCallback(token(victim.nonce()), attacker.state(), attacker.state()));
+        assertEquals(REJECTED, jwtCallback(token(victim.nonce()), victim.state(), null));
+    }
+
+    @Test
+    void idTokenWithoutNonceNeedsTheTenantOptIn() throws Exception {
+        SsoLoginStateStore.PendingLogin login = loginStateStore.issue(null, "JWT");
+        assertEquals(REJECTED, jwtCallback(token(null), null, null));
+        assertEquals(REJECTED, jwtCallback(token(null), login.state(), login.state()));
+
+        jwtConfig.setAllowUnsolicitedLogin(true);
+        assertEquals(HOME, jwtCallback(token(null), null, null));
+    }
+
+    @Test
+    void oidcClaimsAreHandedBackAndTheSessionIsSetUpOnTheForward() {
+        SsoLoginStateStore.PendingLogin login = loginStateStore.issue(null, "OIDC");
+        Map<String, Object> claims = Map.of("email", "jane@example.com", "name", "Jane");
+        when(oidcService.fetchUserClaimsAsync("code-1", login.nonce())).thenReturn(Mono.just(claims));
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        DeferredResult<ModelAndView> result = controller.handleOidcCallback("code-1", login.state(), null, null,
+                login.state(), callback, new MockHttpServletResponse());
+
+        // The async half only carries the claims; no session was touched off the container thread
+        ModelAndView forward = (ModelAndView) result.getResult();
+        assertEquals("forward:/sso/callback/oidc-complete", forward.getViewName());
+        assertEquals(claims, forward.getModel().get("OIDC_CLAIMS"));
+        assertNull(callback.getSession(false));
+
+        MockHttpServletRequest dispatched = new MockHttpServletRequest();
+        dispatched.setDispatcherType(DispatcherType.FORWARD);
+        dispatched.setAttribute("OIDC_CLAIMS", claims);
+        assertEquals(HOME, controller.completeOidcLogin(dispatched));
+        assertNotNull(dispatched.getSession(false).getAttribute("SPRING_SECURITY_CONTEXT"));
+    }
+
+    @Test
+    void oidcCompletionIsNotReachableDirectly() {
+        MockHttpServletRequest direct = new MockHttpServletRequest();
+        direct.setAttribute("OIDC_CLAIMS", Map.of("email", "jane@example.com"));
+        assertEquals("redirect:/login?error=oidc_processing_failed", controller.completeOidcLogin(direct));
+        assertNull(direct.getSession(false));
+    }
+
+    private String jwtCallback(String idToken, String state, String browserState) {
+        return controller.handleCallback(idToken, null, state, null, null, null, browserState,
+                new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+
+    /**
+     * Stands in for a verified ID token: parseJwtToken returns these claims.
+     */
+    private String token(String nonce) throws Exception {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("email", "jane@example.com");
+        claims.put("name", "Jane");
+        if (nonce != null) {
+            claims.put("nonce", nonce);
+        }
+        String idToken = "token-" + System.nanoTime();
+        when(ssoService.parseJwtToken(idToken)).thenReturn(claims);
+        return idToken;
+    }
+}
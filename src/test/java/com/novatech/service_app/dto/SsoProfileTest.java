@@ -0,0 +1,30 @@
+package com.novatech.service_app.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SsoProfileTest {
+
+    @Test
+    void collectsGroupsFromListsAndCommaSeparatedValues() {
+        SsoProfile profile = SsoProfile.fromClaims("jane@acme.com", " Jane Doe ",
+                Map.of("groups", List.of("staff", "admins"), "role", "ops, staff"));
+
+        assertEquals("Jane Doe", profile.name());
+        assertEquals(Set.of("staff", "admins", "ops"), profile.groups());
+    }
+
+    @Test
+    void missingClaimsStayNull() {
+        SsoProfile profile = SsoProfile.fromClaims("jane@acme.com", " ", Map.of("email", "jane@acme.com"));
+
+        assertNull(profile.name());
+        assertNull(profile.groups());
+    }
+}
@@ -0,0 +1,36 @@
+package com.novatech.service_app.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserPageRequestTest {
+
+    @Test
+    void cursorRoundTripsSortValueAndId() {
+        UserPageRequest first = UserPageRequest.of("  jane ", "name", "desc", null, 25);
+        UserSummary last = new UserSummary(42L, "Jane\nDoe", "jane@example.com", "ROLE_USER", null);
+
+        UserPageRequest next = UserPageRequest.of("jane", "name", "desc", first.cursorAfter(last), 25);
+
+        assertEquals("jane", first.search());
+        assertTrue(first.descending());
+        assertTrue(next.hasCursor());
+        assertEquals("Jane\nDoe", next.afterValue());
+        assertEquals(42L, next.afterId());
+    }
+
+    @Test
+    void invalidInputFallsBackToDefaults() {
+        UserPageRequest request = UserPageRequest.of(" ", "password_hash", null, "not-a-cursor!", 10_000);
+
+        assertNull(request.search());
+        assertEquals(UserSortField.ID, request.sort());
+        assertFalse(request.descending());
+        assertFalse(request.hasCursor());
+        assertEquals(UserPageRequest.MAX_SIZE, request.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CacheInvalidationBusTest {
+
+    private CacheInvalidationBus bus;
+    private JdbcTemplate jdbcTemplate;
+    private final List<CacheInvalidationEvent> applied = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        bus = new CacheInvalidationBus();
+        ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(bus, "enabled", true);
+        ReflectionTestUtils.setField(bus, "lagWarnMs", 1000L);
+        bus.register(CacheInvalidationEvent.Type.USER_DETAILS, applied::add, applied::clear);
+    }
+
+    @Test
+    void ownEventsAreCountedButNotReapplied() {
+        bus.receive(publishAndCapture(CacheInvalidationEvent.Type.USER_DETAILS, 7L, "a@x.com"));
+
+        assertTrue(applied.isEmpty());
+        CacheInvalidationBus.Stats stats = bus.stats();
+        assertEquals(1, stats.published());
+        assertEquals(1, stats.received());
+        assertEquals(0, stats.applied());
+    }
+
+    @Test
+    void remoteEventsAreAppliedAndLagRecorded() {
+        long publishedAt = System.currentTimeMillis() - 50;
+        bus.receive("{\"type\":\"USER_DETAILS\",\"tenantId\":7,\"key\":\"a@x.com\",\"origin\":\"other-node\","
+                + "\"publishedAtMillis\":" + publishedAt + "}");
+        bus.receive("{\"type\":\"OIDC_DISCOVERY\",\"key\":\"https://idp\",\"origin\":\"other-node\","
+                + "\"publishedAtMillis\":" + publishedAt + "}");
+        bus.receive("not json");
+
+        assertEquals(List.of(new CacheInvalidationEvent(CacheInvalidationEvent.Type.USER_DETAILS,
+                7L, "a@x.com", "other-node", publishedAt)), applied);
+        CacheInvalidationBus.Stats stats = bus.stats();
+        assertEquals(2, stats.received());
+        assertEquals(1, stats.applied());
+        assertEquals(1, stats.errors());
+        assertTrue(stats.maxLagMs() >= 50);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String publishAndCapture(CacheInvalidationEvent.Type type, Long tenantId, String key) {
+        bus.publish(type, tenantId, key);
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq(CacheInvalidationBus.CHANNEL), payload.capture());
+        return (String) payload.getValue();
+    }
+}
@@ -0,0 +1,106 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.dto.DashboardStats;
+import com.novatech.service_app.dto.TenantStats;
+import com.novatech.service_app.entity.Tenant;
+import com.novatech.service_app.repository.TenantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardStatsServiceTest {
+
+    private TenantRepository tenantRepository;
+    private CacheInvalidationBus invalidationBus;
+    private DashboardStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        tenantRepository = mock(TenantRepository.class);
+        when(tenantRepository.findTenantStats()).thenReturn(Arrays.asList(
+                new TenantStats(1L, "Acme", "a@acme.com", "acme", null, 3),
+                new TenantStats(2L, "Globex", "g@globex.com", "globex", null, 0),
+                new TenantStats(null, null, null, null, null, 2)));
+
+        service = new DashboardStatsService();
+        ReflectionTestUtils.setField(service, "tenantRepository", tenantRepository);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        ReflectionTestUtils.setField(service, "invalidationBus", invalidationBus);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 60L);
+    }
+
+    @Test
+    void loadsOnceAndSplitsOutUnassignedUsers() {
+        DashboardStats stats = service.getStats();
+        service.getStats();
+
+        assertEquals(2, stats.totalTenants());
+        assertEquals(5, stats.totalUsers());
+        assertEquals(2, stats.unassignedUsers());
+        verify(tenantRepository, times(1)).findTenantStats();
+    }
+
+    @Test
+    void appliesCreateAndDeleteEventsWithoutReloading() {
+        service.getStats();
+
+        Tenant tenant = new Tenant();
+        tenant.setId(3L);
+        tenant.setName("Initech");
+        service.onTenantCreated(tenant);
+        service.onUserCreated(3L);
+        service.onUserCreated(3L);
+        service.onUserDeleted(1L);
+        service.onUserCreated(null);
+        service.onTenantDeleted(2L);
+
+        DashboardStats stats = service.getStats();
+        assertEquals(2, stats.totalTenants());
+        assertEquals(7, stats.totalUsers());
+        assertEquals(3, stats.unassignedUsers());
+        assertEquals(2, stats.tenants().get(0).userCount());
+        assertEquals(2, stats.tenants().get(1).userCount());
+        verify(tenantRepository, times(1)).findTenantStats();
+    }
+
+    @Test
+    void userCountDeltasReachOtherNodesWithoutAReload() {
+        service.registerInvalidation();
+        ArgumentCaptor<Consumer<CacheInvalidationEvent>> handler = ArgumentCaptor.captor();
+        verify(invalidationBus).register(eq(CacheInvalidationEvent.Type.DASHBOARD_STATS), handler.capture(), any());
+        service.getStats();
+
+        service.onUserCreated(1L);
+        verify(invalidationBus).publish(CacheInvalidationEvent.Type.DASHBOARD_STATS, 1L, "1");
+
+        handler.getValue().accept(remote(2L, "1"));
+        handler.getValue().accept(remote(null, "-1"));
+        DashboardStats stats = service.getStats();
+        assertEquals(6, stats.totalUsers());
+        assertEquals(1, stats.unassignedUsers());
+        assertEquals(4, stats.tenants().get(0).userCount());
+        assertEquals(1, stats.tenants().get(1).userCount());
+        verify(tenantRepository, times(1)).findTenantStats();
+
+        handler.getValue().accept(remote(null, null));
+        service.getStats();
+        verify(tenantRepository, times(2)).findTenantStats();
+    }
+
+    private static CacheInvalidationEvent remote(Long tenantId, String key) {
+        return new CacheInvalidationEvent(CacheInvalidationEvent.Type.DASHBOARD_STATS, tenantId, key,
+                "other-node", System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,93 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwksKeyCacheTest {
+
+    private static final String JWKS_URI = "https://idp.example.com/jwks";
+
+    private RestTemplate restTemplate;
+    private JwksKeyCache cache;
+    private RSAPublicKey rsaKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        rsaKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(JWKS_URI, Map.class))
+                .thenReturn(Map.of("keys", List.of(rsaJwk("key-1", rsaKey))));
+
+        cache = new JwksKeyCache();
+        ReflectionTestUtils.setField(cache, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(cache, "minRefetchIntervalSeconds", 60L);
+    }
+
+    @Test
+    void buildsRsaAndEcKeysFromJwk() throws Exception {
+        KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+        ec.initialize(new ECGenParameterSpec("secp256r1"));
+        ECPublicKey ecKey = (ECPublicKey) ec.generateKeyPair().getPublic();
+        Map<String, Object> ecJwk = Map.of("kty", "EC", "crv", "P-256",
+                "x", base64Url(ecKey.getW().getAffineX()), "y", base64Url(ecKey.getW().getAffineY()));
+
+        assertEquals(rsaKey, JwksKeyCache.toPublicKey(rsaJwk("key-1", rsaKey)));
+        assertEquals(ecKey, JwksKeyCache.toPublicKey(ecJwk));
+    }
+
+    @Test
+    void unknownKidRefetchIsRateLimited() {
+        PublicKey key = cache.getKey(JWKS_URI, "key-1");
+
+        assertEquals(rsaKey, key);
+        // Fetched moments ago: unknown kids are rejected without hitting the IdP again
+        assertThrows(SecurityException.class, () -> cache.getKey(JWKS_URI, "forged-1"));
+        assertThrows(SecurityException.class, () -> cache.getKey(JWKS_URI, "forged-2"));
+        verify(restTemplate, times(1)).getForObject(JWKS_URI, Map.class);
+    }
+
+    @Test
+    void unknownKidRefetchesOnceIntervalHasPassed() {
+        ReflectionTestUtils.setField(cache, "minRefetchIntervalSeconds", 0L);
+        cache.getKey(JWKS_URI, "key-1");
+
+        assertThrows(SecurityException.class, () -> cache.getKey(JWKS_URI, "rotated"));
+        verify(restTemplate, times(2)).getForObject(JWKS_URI, Map.class);
+    }
+
+    private static Map<String, Object> rsaJwk(String kid, RSAPublicKey key) {
+        return Map.of("kty", "RSA", "kid", kid, "use", "sig",
+                "n", base64Url(key.getModulus()), "e", base64Url(key.getPublicExponent()));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,92 @@
+package com.novatech.service_app.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OidcIdTokenVerifierTest {
+
+    private static final String ISSUER = "https://idp.example.com";
+    private static final String JWKS_URI = ISSUER + "/jwks";
+
+    private KeyPair keyPair;
+    private OidcIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+
+        JwksKeyCache jwksKeyCache = mock(JwksKeyCache.class);
+        when(jwksKeyCache.getKey(JWKS_URI, "key-1")).thenReturn(keyPair.getPublic());
+
+        verifier = new OidcIdTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "jwksKeyCache", jwksKeyCache);
+    }
+
+    @Test
+    void acceptsTokenSignedByPublishedKey() {
+        Map<String, Object> claims = verifier.verify(token(ISSUER, "client-1"), ISSUER, JWKS_URI, "client-1");
+
+        assertEquals("jane@acme.com", claims.get("email"));
+    }
+
+    @Test
+    void rejectsWrongIssuerAudienceOrKey() throws Exception {
+        assertThrows(SecurityException.class,
+                () -> verifier.verify(token("https://evil.example.com", "client-1"), ISSUER, JWKS_URI, "client-1"));
+        assertThrows(SecurityException.class,
+                () -> verifier.verify(token(ISSUER, "other-client"), ISSUER, JWKS_URI, "client-1"));
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        assertThrows(SecurityException.class,
+                () -> verifier.verify(token(ISSUER, "client-1"), ISSUER, JWKS_URI, "client-1"));
+    }
+
+    @Test
+    void decodesUnsignedPathButStillChecksClaims() {
+        assertEquals("jane@acme.com", verifier.decode(token(ISSUER, "client-1"), null, "client-1").get("email"));
+        assertEquals("jane@acme.com", verifier.decode(token(ISSUER, "client-1"), ISSUER, "client-1").get("email"));
+
+        assertThrows(SecurityException.class,
+                () -> verifier.decode(token(ISSUER, "other-client"), null, "client-1"));
+        assertThrows(SecurityException.class,
+                () -> verifier.decode(token("https://evil.example.com", "client-1"), ISSUER, "client-1"));
+        assertThrows(SecurityException.class,
+                () -> verifier.decode(token(null, "client-1"), null, "client-1"));
+        assertThrows(SecurityException.class,
+                () -> verifier.decode(token(ISSUER, "client-1", -120_000), null, "client-1"));
+        assertThrows(SecurityException.class, () -> verifier.decode("not-a-jwt", null, "client-1"));
+    }
+
+    private String token(String issuer, String audience) {
+        return token(issuer, audience, 60_000);
+    }
+
+    private String token(String issuer, String audience, long expiresInMillis) {
+        return Jwts.builder()
+                .setHeaderParam("kid", "key-1")
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setSubject("user-1")
+                .claim("email", "jane@acme.com")
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+}
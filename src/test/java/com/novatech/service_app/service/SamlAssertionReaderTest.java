@@ -0,0 +1,90 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.service.SamlAssertionReader.SamlAssertion;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamlAssertionReaderTest {
+
+    private static final String RESPONSE = """
+            <samlp:Response xmlns:samlp="urn:oasis:names:tc:SAML:2.0:protocol"
+                            xmlns:saml="urn:oasis:names:tc:SAML:2.0:assertion" ID="_resp1">
+              <saml:Issuer>https://idp.example.com</saml:Issuer>
+              <saml:Assertion ID="_assert1">
+                <saml:Issuer>https://idp.example.com/assertion</saml:Issuer>
+                <ds:Signature xmlns:ds="http://www.w3.org/2000/09/xmldsig#"/>
+                <saml:Subject><saml:NameID>jane@example.com</saml:NameID></saml:Subject>
+                <saml:Conditions NotBefore="2024-01-01T00:00:00Z" NotOnOrAfter="2024-01-01T00:05:00Z">
+                  <saml:AudienceRestriction><saml:Audience>https://sp.example.com</saml:Audience></saml:AudienceRestriction>
+                </saml:Conditions>
+                <saml:AttributeStatement>
+                  <saml:Attribute Name="urn:oid:givenName"><saml:AttributeValue>Jane</saml:AttributeValue></saml:Attribute>
+                  <saml:Attribute Name="groups">
+                    <saml:AttributeValue>admins</saml:AttributeValue>
+                    <saml:AttributeValue>users</saml:AttributeValue>
+                  </saml:Attribute>
+                </saml:AttributeStatement>
+              </saml:Assertion>
+            </samlp:Response>
+            """;
+
+    @Test
+    void readsAllFieldsFromTheAssertion() throws Exception {
+        SamlAssertion assertion = SamlAssertionReader.read(assertion(RESPONSE));
+
+        assertEquals("https://idp.example.com", assertion.responseIssuer());
+        assertEquals("https://idp.example.com/assertion", assertion.effectiveIssuer());
+        assertEquals("_assert1", assertion.assertionId());
+        assertEquals("https://sp.example.com", assertion.audience());
+        assertTrue(assertion.conditionsPresent());
+        assertEquals("2024-01-01T00:00:00Z", assertion.notBefore());
+        assertEquals("2024-01-01T00:05:00Z", assertion.notOnOrAfter());
+        assertEquals("jane@example.com", assertion.nameId());
+        assertEquals("Jane", assertion.attributes().get("urn:oid:givenName"));
+        assertEquals("admins", assertion.attributes().get("groups"));
+    }
+
+    @Test
+    void missingConditionsIsReported() throws Exception {
+        SamlAssertion assertion = SamlAssertionReader.read(assertion("""
+                <samlp:Response xmlns:samlp="urn:oasis:names:tc:SAML:2.0:protocol"
+                                xmlns:saml="urn:oasis:names:tc:SAML:2.0:assertion">
+                  <saml:Issuer>x</saml:Issuer><saml:Assertion ID="_a"/>
+                </samlp:Response>"""));
+        assertFalse(assertion.conditionsPresent());
+        assertNull(assertion.notOnOrAfter());
+        assertEquals("x", assertion.effectiveIssuer());
+    }
+
+    @Test
+    void readsOnlyTheSamlPathsInsideTheAssertion() throws Exception {
+        String decoys = RESPONSE
+                .replace("<saml:Subject>", """
+                        <saml:Advice><saml:Assertion ID="_nested"><saml:Issuer>https://evil.example.com</saml:Issuer>
+                        <saml:Subject><saml:NameID>admin@example.com</saml:NameID></saml:Subject></saml:Assertion></saml:Advice>
+                        <saml:Subject>""")
+                .replace("<saml:NameID>jane@example.com", "<x:NameID xmlns:x=\"urn:evil\">root@example.com</x:NameID>"
+                        + "<saml:NameID>jane@example.com");
+
+        SamlAssertion assertion = SamlAssertionReader.read(assertion(decoys));
+        assertEquals("jane@example.com", assertion.nameId());
+        assertEquals("https://idp.example.com/assertion", assertion.effectiveIssuer());
+    }
+
+    private static Element assertion(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document doc = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        return (Element) doc.getElementsByTagNameNS("urn:oasis:names:tc:SAML:2.0:assertion", "Assertion").item(0);
+    }
+}
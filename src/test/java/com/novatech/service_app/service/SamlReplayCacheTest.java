@@ -0,0 +1,80 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamlReplayCacheTest {
+
+    private SamlReplayCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SamlReplayCache();
+        ReflectionTestUtils.setField(cache, "store", "memory");
+        ReflectionTestUtils.setField(cache, "maxEntries", 100_000);
+        ReflectionTestUtils.setField(cache, "defaultTtlSeconds", 300L);
+    }
+
+    @Test
+    void secondUseOfAnAssertionIsRejected() {
+        Instant notOnOrAfter = Instant.now().plusSeconds(300);
+        cache.checkAndRecord("https://idp", "_a1", notOnOrAfter);
+        // Same ID from another IdP is a different assertion
+        cache.checkAndRecord("https://other-idp", "_a1", notOnOrAfter);
+
+        assertThrows(SecurityException.class, () -> cache.checkAndRecord("https://idp", "_a1", notOnOrAfter));
+        assertThrows(SecurityException.class, () -> cache.checkAndRecord("https://idp", null, notOnOrAfter));
+    }
+
+    @Test
+    void wheelDropsIdsOnceTheyExpire() {
+        long now = 1_000_000_000L;
+        assertTrue(cache.recordLocally("short", now + 5_000, now));
+        assertTrue(cache.recordLocally("long", now + 900_000, now)); // more than one turn of the wheel
+
+        cache.expire(now + 4_000);
+        assertEquals(2, cache.size());
+
+        cache.expire(now + 6_000);
+        assertEquals(1, cache.size());
+        assertTrue(cache.recordLocally("short", now + 10_000, now + 6_000));
+        assertFalse(cache.recordLocally("long", now + 900_000, now + 6_000));
+
+        cache.expire(now + 901_000);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullCacheRefusesInsteadOfForgetting() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        long now = 1_000_000_000L;
+        cache.recordLocally("a", now + 60_000, now);
+        cache.recordLocally("b", now + 60_000, now);
+
+        assertThrows(SecurityException.class, () -> cache.recordLocally("c", now + 60_000, now));
+        assertTrue(cache.recordLocally("c", now + 60_000, now + 61_000));
+    }
+
+    @Test
+    void checkStaysFastWithManyLiveEntries() {
+        Instant notOnOrAfter = Instant.now().plusSeconds(600);
+        for (int i = 0; i < 50_000; i++) {
+            cache.checkAndRecord("https://idp", "_warm" + i, notOnOrAfter);
+        }
+        int samples = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            cache.checkAndRecord("https://idp", "_probe" + i, notOnOrAfter);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / samples;
+        assertTrue(micros < 1_000, "average check took " + micros + " us");
+    }
+}
@@ -0,0 +1,97 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SamlServiceTest {
+
+    private static final String ISSUER = "https://idp.example.com";
+    private static final String SP_ENTITY_ID = "https://sp.example.com";
+
+    private SamlService samlService;
+    private KeyPair idpKeys;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        idpKeys = generator.generateKeyPair();
+
+        SsoConfiguration config = new SsoConfiguration();
+        config.setSsoType("SAML");
+        config.setIssuer(ISSUER);
+        config.setDomain(SP_ENTITY_ID);
+        config.setCertificatePath("idp.pem");
+
+        SsoConfigCache configCache = mock(SsoConfigCache.class);
+        when(configCache.get(TenantContext.getTenantId(), "SAML")).thenReturn(Optional.of(config));
+
+        // Real XML-DSig check, against the generated key instead of a certificate file
+        SamlSignatureVerifier realVerifier = new SamlSignatureVerifier();
+        SamlSignatureVerifier verifier = mock(SamlSignatureVerifier.class);
+        when(verifier.verifyAssertion(any(), eq(config))).thenAnswer(inv ->
+                realVerifier.verifyAssertion((byte[]) inv.getArgument(0), idpKeys.getPublic()));
+
+        SamlReplayCache replayCache = new SamlReplayCache();
+        ReflectionTestUtils.setField(replayCache, "store", "memory");
+        ReflectionTestUtils.setField(replayCache, "maxEntries", 100_000);
+        ReflectionTestUtils.setField(replayCache, "defaultTtlSeconds", 300L);
+
+        samlService = new SamlService();
+        ReflectionTestUtils.setField(samlService, "ssoConfigCache", configCache);
+        ReflectionTestUtils.setField(samlService, "samlSignatureVerifier", verifier);
+        ReflectionTestUtils.setField(samlService, "samlReplayCache", replayCache);
+    }
+
+    @Test
+    void rewrappedReplayOfASignedAssertionIsRejected() throws Exception {
+        Instant now = Instant.now();
+        String signed = SamlSignatureVerifierTest.signAssertion("""
+                <samlp:Response xmlns:samlp="urn:oasis:names:tc:SAML:2.0:protocol"
+                                xmlns:saml="urn:oasis:names:tc:SAML:2.0:assertion" ID="_resp1">
+                  <saml:Issuer>%s</saml:Issuer>
+                  <saml:Assertion ID="_assert1">
+                    <saml:Issuer>%s</saml:Issuer>
+                    <saml:Subject><saml:NameID>jane@example.com</saml:NameID></saml:Subject>
+                    <saml:Conditions NotBefore="%s" NotOnOrAfter="%s">
+                      <saml:AudienceRestriction><saml:Audience>%s</saml:Audience></saml:AudienceRestriction>
+                    </saml:Conditions>
+                  </saml:Assertion>
+                </samlp:Response>""".formatted(ISSUER, ISSUER, now.minusSeconds(60),
+                now.plusSeconds(300), SP_ENTITY_ID), idpKeys);
+
+        Map<String, Object> attributes = samlService.parseSamlResponse(encode(signed));
+        assertEquals("jane@example.com", attributes.get("email"));
+
+        // Same signed assertion, new Response ID and a decoy assertion with a fresh ID in front of it
+        String rewrapped = signed.replace("ID=\"_resp1\"", "ID=\"_resp2\"")
+                .replace("<saml:Assertion ", "<samlp:Extensions><x:Assertion xmlns:x=\"urn:evil\" ID=\"_fresh\">"
+                        + "<x:Issuer>" + ISSUER + "</x:Issuer></x:Assertion></samlp:Extensions><saml:Assertion ");
+
+        RuntimeException replay = assertThrows(RuntimeException.class,
+                () -> samlService.parseSamlResponse(encode(rewrapped)));
+        assertInstanceOf(SecurityException.class, replay.getCause());
+    }
+
+    private static String encode(String xml) {
+        return Base64.getEncoder().encodeToString(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,148 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SamlSignatureVerifierTest {
+
+    private static final String UNSIGNED = """
+            <samlp:Response xmlns:samlp="urn:oasis:names:tc:SAML:2.0:protocol"
+                            xmlns:saml="urn:oasis:names:tc:SAML:2.0:assertion" ID="_resp1">
+              <saml:Issuer>https://idp.example.com</saml:Issuer>
+              <saml:Assertion ID="_assert1">
+                <saml:Issuer>https://idp.example.com</saml:Issuer>
+                <saml:Subject><saml:NameID>jane@example.com</saml:NameID></saml:Subject>
+              </saml:Assertion>
+            </samlp:Response>""";
+
+    private static KeyPair idpKeys;
+    private static String signed;
+
+    private final SamlSignatureVerifier verifier = new SamlSignatureVerifier();
+
+    @BeforeAll
+    static void signFixture() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        idpKeys = generator.generateKeyPair();
+        signed = signAssertion(UNSIGNED, idpKeys);
+    }
+
+    @Test
+    void acceptsValidAssertionSignature() {
+        assertEquals(Optional.of("_assert1"), verifiedId(signed));
+    }
+
+    @Test
+    void rejectsTamperedAssertion() {
+        String tampered = signed.replace("jane@example.com", "admin@example.com");
+        assertFalse(verifier.verifyAssertion(bytes(tampered), idpKeys.getPublic()).isPresent());
+    }
+
+    @Test
+    void rejectsWrongKey() throws Exception {
+        KeyPair other = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        assertFalse(verifier.verifyAssertion(bytes(signed), other.getPublic()).isPresent());
+    }
+
+    @Test
+    void rejectsUnsignedResponse() {
+        assertFalse(verifier.verifyAssertion(bytes(UNSIGNED), idpKeys.getPublic()).isPresent());
+    }
+
+    @Test
+    void rejectsDoctype() {
+        String xxe = "<?xml version=\"1.0\"?><!DOCTYPE r [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + signed.substring(signed.indexOf("<samlp:Response"));
+        assertFalse(verifier.verifyAssertion(bytes(xxe), idpKeys.getPublic()).isPresent());
+    }
+
+    @Test
+    void rejectsWrappedSecondAssertion() {
+        String wrapped = signed.replace("</samlp:Response>",
+                "<saml:Assertion ID=\"_evil\"><saml:Subject><saml:NameID>admin@example.com</saml:NameID>"
+                        + "</saml:Subject></saml:Assertion></samlp:Response>");
+        assertFalse(verifier.verifyAssertion(bytes(wrapped), idpKeys.getPublic()).isPresent());
+    }
+
+    @Test
+    void foreignNamespaceDecoyBeforeSignedAssertionIsIgnored() throws Exception {
+        String wrapped = signed.replace("<saml:Assertion ",
+                "<samlp:Extensions><x:Assertion xmlns:x=\"urn:evil\" ID=\"_fresh\">"
+                        + "<x:Issuer>https://idp.example.com</x:Issuer><x:NameID>admin@example.com</x:NameID>"
+                        + "</x:Assertion></samlp:Extensions><saml:Assertion ");
+
+        Optional<Element> verified = verifier.verifyAssertion(bytes(wrapped), idpKeys.getPublic());
+        assertEquals(Optional.of("_assert1"), verified.map(element -> element.getAttribute("ID")));
+
+        SamlAssertionReader.SamlAssertion assertion = SamlAssertionReader.read(verified.get());
+        assertEquals("_assert1", assertion.assertionId());
+        assertEquals("jane@example.com", assertion.nameId());
+        assertEquals("https://idp.example.com", assertion.effectiveIssuer());
+    }
+
+    private Optional<String> verifiedId(String xml) {
+        return verifier.verifyAssertion(bytes(xml), idpKeys.getPublic()).map(element -> element.getAttribute("ID"));
+    }
+
+    private static byte[] bytes(String xml) {
+        return xml.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String signAssertion(String xml, KeyPair keys) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().parse(new ByteArrayInputStream(bytes(xml)));
+        Element assertion = (Element) doc.getElementsByTagNameNS(
+                "urn:oasis:names:tc:SAML:2.0:assertion", "Assertion").item(0);
+        assertion.setIdAttributeNS(null, "ID", true);
+
+        XMLSignatureFactory factory = XMLSignatureFactory.getInstance("DOM");
+        Reference reference = factory.newReference("#" + assertion.getAttribute("ID"),
+                factory.newDigestMethod(DigestMethod.SHA256, null),
+                List.of(factory.newTransform(Transform.ENVELOPED, (TransformParameterSpec) null),
+                        factory.newTransform(CanonicalizationMethod.EXCLUSIVE, (TransformParameterSpec) null)),
+                null, null);
+        SignedInfo signedInfo = factory.newSignedInfo(
+                factory.newCanonicalizationMethod(CanonicalizationMethod.EXCLUSIVE, (C14NMethodParameterSpec) null),
+                factory.newSignatureMethod(SignatureMethod.RSA_SHA256, null),
+                List.of(reference));
+
+        // Signature goes right after the Assertion's Issuer, as SAML requires
+        Element issuer = (Element) assertion.getElementsByTagNameNS(
+                "urn:oasis:names:tc:SAML:2.0:assertion", "Issuer").item(0);
+        DOMSignContext signContext = new DOMSignContext(keys.getPrivate(), assertion, issuer.getNextSibling());
+        factory.newXMLSignature(signedInfo, null).sign(signContext);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransformerFactory.newInstance().newTransformer().transform(new DOMSource(doc), new StreamResult(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
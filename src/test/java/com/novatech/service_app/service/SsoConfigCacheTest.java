@@ -0,0 +1,82 @@
+package com.novatech.service_app.service;
+
+import com.novatech.service_app.entity.SsoConfiguration;
+import com.novatech.service_app.repository.SsoConfigurationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SsoConfigCacheTest {
+
+    private SsoConfigurationRepository repository;
+    private EntityManager entityManager;
+    private SsoConfigCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SsoConfigurationRepository.class);
+        cache = new SsoConfigCache();
+        ReflectionTestUtils.setField(cache, "ssoConfigRepository", repository);
+        ReflectionTestUtils.setField(cache, "invalidationBus", mock(CacheInvalidationBus.class));
+        entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(cache, "entityManager", entityManager);
+    }
+
+    @Test
+    void enabledMethodsAreLoadedOnceAndReloadedAfterInvalidation() {
+        when(repository.findByTenantId(7L)).thenReturn(List.of(config("JWT", true), config("SAML", false)));
+
+        EnabledSsoMethods first = cache.enabledMethods(7L);
+        EnabledSsoMethods second = cache.enabledMethods(7L);
+        cache.get(7L, "jwt");
+
+        assertEquals(new EnabledSsoMethods(true, false, false), first);
+        assertEquals(first, second);
+        assertTrue(first.any());
+        verify(repository, times(1)).findByTenantId(7L);
+
+        when(repository.findByTenantId(7L)).thenReturn(List.of(config("JWT", false)));
+        cache.invalidate(7L);
+
+        assertFalse(cache.enabledMethods(7L).any());
+        verify(repository, times(2)).findByTenantId(7L);
+    }
+
+    @Test
+    void tenantsDoNotShareSnapshots() {
+        when(repository.findByTenantId(1L)).thenReturn(List.of(config("OIDC", true)));
+        when(repository.findByTenantId(2L)).thenReturn(List.of());
+
+        assertTrue(cache.get(1L, "OIDC").isPresent());
+        assertTrue(cache.get(2L, "OIDC").isEmpty());
+        assertEquals(EnabledSsoMethods.NONE, cache.enabledMethods(2L));
+    }
+
+    @Test
+    void cachedConfigsAreDetachedFromTheLoadingPersistenceContext() {
+        SsoConfiguration oidc = config("OIDC", true);
+        when(repository.findByTenantId(3L)).thenReturn(List.of(oidc));
+
+        assertSame(oidc, cache.get(3L, "OIDC").orElseThrow());
+        verify(entityManager).detach(oidc);
+    }
+
+    private static SsoConfiguration config(String ssoType, boolean enabled) {
+        SsoConfiguration config = new SsoConfiguration();
+        config.setSsoType(ssoType);
+        config.setEnabled(enabled);
+        return config;
+    }
+}
@@ -0,0 +1,70 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SsoLoginStateStoreTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    private SsoLoginStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SsoLoginStateStore();
+        ReflectionTestUtils.setField(store, "store", "memory");
+        ReflectionTestUtils.setField(store, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(store, "maxEntries", 3);
+    }
+
+    @Test
+    void stateIsConsumedExactlyOnce() {
+        SsoLoginStateStore.PendingLogin login = store.issue(7L, "OIDC", NOW);
+        assertEquals(43, login.state().length());
+        assertNotEquals(login.state(), login.nonce());
+
+        assertEquals(login.nonce(), store.consume(login.state(), login.state(), 7L, "OIDC", NOW + 1_000).nonce());
+        assertThrows(SecurityException.class, () -> store.consume(login.state(), login.state(), 7L, "OIDC", NOW + 2_000));
+        assertThrows(SecurityException.class, () -> store.consume(null, null, 7L, "OIDC", NOW));
+    }
+
+    @Test
+    void stateIsOnlyAcceptedFromTheBrowserItWasIssuedTo() {
+        SsoLoginStateStore.PendingLogin victim = store.issue(7L, "OIDC", NOW);
+        SsoLoginStateStore.PendingLogin attacker = store.issue(7L, "OIDC", NOW);
+
+        assertThrows(SecurityException.class, () -> store.consume(attacker.state(), victim.state(), 7L, "OIDC", NOW));
+        assertThrows(SecurityException.class, () -> store.consume(attacker.state(), null, 7L, "OIDC", NOW));
+        // A rejected callback does not burn the state of the browser that owns it
+        assertEquals(attacker.nonce(), store.consume(attacker.state(), attacker.state(), 7L, "OIDC", NOW).nonce());
+    }
+
+    @Test
+    void stateFromAnotherTenantOrFlowIsRejected() {
+        SsoLoginStateStore.PendingLogin login = store.issue(7L, "OIDC", NOW);
+        assertThrows(SecurityException.class, () -> store.consume(login.state(), login.state(), 8L, "OIDC", NOW));
+
+        SsoLoginStateStore.PendingLogin jwt = store.issue(7L, "JWT", NOW);
+        assertThrows(SecurityException.class, () -> store.consume(jwt.state(), jwt.state(), 7L, "OIDC", NOW));
+    }
+
+    @Test
+    void expiredAndOverflowingStatesAreDropped() {
+        SsoLoginStateStore.PendingLogin expired = store.issue(1L, "OIDC", NOW);
+        assertThrows(SecurityException.class,
+                () -> store.consume(expired.state(), expired.state(), 1L, "OIDC", NOW + 600_000));
+
+        SsoLoginStateStore.PendingLogin first = store.issue(1L, "OIDC", NOW + 700_000);
+        store.issue(1L, "OIDC", NOW + 700_000);
+        store.issue(1L, "OIDC", NOW + 700_000);
+        store.issue(1L, "OIDC", NOW + 700_000);
+
+        assertEquals(3, store.size());
+        assertThrows(SecurityException.class, () -> store.consume(first.state(), first.state(), 1L, "OIDC", NOW + 700_000));
+    }
+}
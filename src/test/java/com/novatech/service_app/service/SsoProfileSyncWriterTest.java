@@ -0,0 +1,69 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SsoProfileSyncWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserDetailsCache userDetailsCache;
+    private SsoProfileSyncWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userDetailsCache = mock(UserDetailsCache.class);
+        writer = new SsoProfileSyncWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "userDetailsCache", userDetailsCache);
+        // Long delay: the test flushes explicitly
+        ReflectionTestUtils.setField(writer, "flushDelayMs", 60_000L);
+        ReflectionTestUtils.setField(writer, "batchSize", 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void coalescesUpdatesPerUserIntoOneBatch() {
+        writer.enqueue(new SsoProfileSyncWriter.PendingUpdate(1L, 7L, "a@acme.com", "Ann", "ROLE_USER"));
+        writer.enqueue(new SsoProfileSyncWriter.PendingUpdate(2L, 7L, "b@acme.com", "Bob", "ROLE_USER"));
+        writer.enqueue(new SsoProfileSyncWriter.PendingUpdate(1L, 7L, "a@acme.com", "Ann Lee", "ROLE_ADMIN"));
+        assertEquals(2, writer.pendingCount());
+
+        writer.flush();
+
+        ArgumentCaptor<Collection<SsoProfileSyncWriter.PendingUpdate>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<SsoProfileSyncWriter.PendingUpdate> written = List.copyOf(batch.getValue());
+        assertEquals(2, written.size());
+        assertEquals("Ann Lee", written.stream().filter(u -> u.userId() == 1L).findFirst().orElseThrow().fullName());
+        verify(userDetailsCache).evict(7L, "a@acme.com");
+        verify(userDetailsCache).evict(7L, "b@acme.com");
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emptyFlushWritesNothing() {
+        writer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
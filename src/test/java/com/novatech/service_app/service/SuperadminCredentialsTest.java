@@ -0,0 +1,39 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SuperadminCredentialsTest {
+
+    @Test
+    void hashesPlaintextPasswordOnceAtStartup() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode("admin123")).thenReturn("$2a$10$hash");
+
+        SuperadminCredentials credentials = new SuperadminCredentials("root@novatech.com", "admin123", "", encoder);
+        credentials.getPasswordHash();
+        credentials.getPasswordHash();
+
+        assertEquals("$2a$10$hash", credentials.getPasswordHash());
+        verify(encoder, times(1)).encode(any());
+    }
+
+    @Test
+    void prefersSuppliedHash() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+
+        SuperadminCredentials credentials =
+                new SuperadminCredentials("root@novatech.com", "admin123", "$2a$12$prehashed", encoder);
+
+        assertEquals("$2a$12$prehashed", credentials.getPasswordHash());
+        verify(encoder, never()).encode(any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.novatech.service_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class UserDetailsCacheTest {
+
+    private UserDetailsCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserDetailsCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "invalidationBus", mock(CacheInvalidationBus.class));
+    }
+
+    @Test
+    void cachesPerTenantAndCountsHitsAndMisses() {
+        CustomUserDetails first = cache.get(1L, "jane@example.com", () -> load(1L));
+        CustomUserDetails second = cache.get(1L, "jane@example.com", () -> load(1L));
+        cache.get(2L, "jane@example.com", () -> load(2L));
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        UserDetailsCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void evictionForcesReload() {
+        cache.get(1L, "jane@example.com", () -> load(1L));
+        cache.evict(1L, "jane@example.com");
+        cache.get(1L, "jane@example.com", () -> load(1L));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void doesNotCacheUnknownUsers() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(UsernameNotFoundException.class, () -> cache.get(1L, "nobody@example.com", () -> {
+                loads.incrementAndGet();
+                throw new UsernameNotFoundException("nobody");
+            }));
+        }
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    private CustomUserDetails load(Long tenantId) {
+        loads.incrementAndGet();
+        return new CustomUserDetails("jane@example.com", "$2a$10$hash", "ROLE_USER", 7L, tenantId,
+                "END_USER", "Jane");
+    }
+}